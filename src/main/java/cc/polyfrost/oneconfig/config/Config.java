@@ -26,11 +26,8 @@
 
 package cc.polyfrost.oneconfig.config;
 
-import cc.polyfrost.oneconfig.config.annotations.Button;
 import cc.polyfrost.oneconfig.config.annotations.CustomOption;
-import cc.polyfrost.oneconfig.config.annotations.HUD;
 import cc.polyfrost.oneconfig.config.annotations.Page;
-import cc.polyfrost.oneconfig.config.annotations.SubConfig;
 import cc.polyfrost.oneconfig.config.core.ConfigUtils;
 import cc.polyfrost.oneconfig.config.core.OneKeyBind;
 import cc.polyfrost.oneconfig.config.data.Mod;
@@ -50,11 +47,13 @@ import cc.polyfrost.oneconfig.hud.HUDUtils;
 import cc.polyfrost.oneconfig.internal.config.SubMainConfig;
 import cc.polyfrost.oneconfig.internal.config.annotations.Option;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigMetadata;
 import cc.polyfrost.oneconfig.internal.config.core.KeyBindHandler;
 import cc.polyfrost.oneconfig.internal.utils.Deprecator;
 import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.ApiStatus;
@@ -65,16 +64,20 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 @SuppressWarnings({"unused", "ResultOfMethodCallIgnored"})
@@ -92,6 +95,7 @@ public class Config {
     public final boolean canToggle;
 
     private final transient Logger logger;
+    private transient volatile boolean dirty;
 
     /**
      * @param modData    information about the mod
@@ -122,6 +126,7 @@ public class Config {
     public void initialize() {
         logger.trace("Initializing config for {}...", mod.name);
 
+        long start = System.nanoTime();
         boolean migrate = false;
         File profileFile = ConfigUtils.getProfileFile(configFile);
         if (profileFile.exists()) load();
@@ -132,9 +137,11 @@ public class Config {
 
         logger.trace("Should migrate: {}", migrate);
 
+        long loaded = System.nanoTime();
         mod.config = this;
         generateOptionList(this, mod.defaultPage, mod, migrate);
         if (migrate) save();
+        ConfigCore.recordInitTiming(mod, loaded - start, System.nanoTime() - loaded);
 
         logger.trace("Config for {} initialized", mod.name);
         ConfigCore.mods.add(mod);
@@ -150,10 +157,36 @@ public class Config {
         }
     }
 
+    /**
+     * Mark this config as changed, it will be saved in the background shortly after.
+     * Options do this automatically, call it yourself after changing a field from code. Changes that are never marked
+     * are only written by the full save every few minutes and on shutdown.
+     */
+    public void markDirty() {
+        dirty = true;
+        ConfigCore.scheduleSave();
+    }
+
+    /**
+     * @return If this config has unsaved changes
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Forget that this config has unsaved changes, for subclasses that override {@link #save()}.
+     * Call it before serializing, so changes made while saving mark the config dirty again.
+     */
+    protected final void clearDirty() {
+        dirty = false;
+    }
+
     /**
      * Save current config to file
      */
-    public void save() {
+    public synchronized void save() {
+        dirty = false;
         logger.trace("Saving config for {}...", mod.name);
 
         Path profilePath = ConfigUtils.getProfileFile(configFile).toPath();
@@ -168,16 +201,8 @@ public class Config {
             logger.error("Failed to create directories for config file", e);
         }
 
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(profilePath), StandardCharsets.UTF_8))) {
-            writer.write(gson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(nonProfileSpecificPath), StandardCharsets.UTF_8))) {
-            writer.write(nonProfileSpecificGson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        writeFile(profilePath, gson.toJson(this));
+        writeFile(nonProfileSpecificPath, nonProfileSpecificGson.toJson(this));
     }
 
     /**
@@ -191,20 +216,71 @@ public class Config {
 
         logger.trace("Loading from:\n\t{}\n\t{}", profilePath, nonProfileSpecificPath);
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(profilePath), StandardCharsets.UTF_8))) {
-            gson.fromJson(reader, this.getClass());
+        CompletableFuture<JsonElement> profileData = ConfigCore.readFile(profilePath);
+        CompletableFuture<JsonElement> nonProfileSpecificData = ConfigCore.readFile(nonProfileSpecificPath);
+        loadFile(profilePath, profileData, gson);
+        loadFile(nonProfileSpecificPath, nonProfileSpecificData, nonProfileSpecificGson);
+    }
+
+    /**
+     * Write the file crash-safely: the contents go to a temporary file in the same directory, which is synced to disk
+     * and then moved over the target in one step. The previous contents are kept as a single rolling backup.
+     * The temporary file is created like any other file (not through {@link Files#createTempFile}, which makes it
+     * owner-only), so the config keeps the usual permissions after the move.
+     */
+    protected final void writeFile(Path path, String contents) {
+        ConfigCore.invalidateFile(path);
+        Path temp = null;
+        try {
+            temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.name()))) {
+                writer.write(contents);
+                writer.flush();
+                channel.force(true);
+            }
+            if (Files.exists(path)) Files.copy(path, getBackupPath(path), StandardCopyOption.REPLACE_EXISTING);
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
         } catch (Exception e) {
-            e.printStackTrace();
-            File file = ConfigUtils.getProfileFile(configFile);
-            file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
+            logger.error("Failed to save config file " + path, e);
+            if (temp != null) temp.toFile().delete();
         }
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(nonProfileSpecificPath), StandardCharsets.UTF_8))) {
-            nonProfileSpecificGson.fromJson(reader, this.getClass());
+    }
+
+    /**
+     * Apply the parsed file to this config, falling back to its backup if the file is missing or could not be parsed.
+     * A file that fails to parse is kept next to the original with a ".corrupted" suffix.
+     */
+    protected final void loadFile(Path path, CompletableFuture<JsonElement> data, Gson gson) {
+        try {
+            JsonElement json = data.join();
+            if (json != null) {
+                gson.fromJson(json, this.getClass());
+                return;
+            }
         } catch (Exception e) {
-            e.printStackTrace();
-            File file = ConfigUtils.getNonProfileSpecificFile(configFile);
+            logger.error("Failed to load config file " + path + ", trying backup", e);
+            File file = path.toFile();
             file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
         }
+        Path backupPath = getBackupPath(path);
+        if (!Files.exists(backupPath)) return;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(backupPath), StandardCharsets.UTF_8))) {
+            gson.fromJson(reader, this.getClass());
+            logger.warn("Restored config file {} from backup", path);
+            markDirty();
+        } catch (Exception e) {
+            logger.error("Failed to load backup config file " + backupPath, e);
+        }
+    }
+
+    private static Path getBackupPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".bak");
     }
 
     /**
@@ -238,19 +314,23 @@ public class Config {
         List<Mod> subMods = new ArrayList<>();
 
         String pagePath = page.equals(mod.defaultPage) ? "" : page.name + ".";
-        for (Field field : targetClass.getDeclaredFields()) {
-            Option option = ConfigUtils.findAnnotation(field, Option.class);
-            CustomOption customOption = ConfigUtils.findAnnotation(field, CustomOption.class);
+        ConfigMetadata metadata = ConfigMetadata.get(targetClass);
+        for (ConfigMetadata.FieldData fieldData : metadata.declaredFields) {
+            Field field = fieldData.field;
+            Option option = fieldData.option;
+            CustomOption customOption = fieldData.customOption;
             String optionName = pagePath + field.getName();
             if (option != null) {
                 BasicOption configOption = ConfigUtils.addOptionToPage(page, option, field, instance, migrate ? mod.migrator : null);
+                if (configOption != null) configOption.addListener(this::markDirty);
                 optionNames.put(optionName, configOption);
             } else if (customOption != null) {
                 BasicOption configOption = getCustomOption(field, customOption, page, mod, migrate);
                 if (configOption == null) continue;
+                configOption.addListener(this::markDirty);
                 optionNames.put(optionName, configOption);
-            } else if (field.isAnnotationPresent(Page.class)) {
-                Page optionPage = field.getAnnotation(Page.class);
+            } else if (fieldData.page != null) {
+                Page optionPage = fieldData.page;
                 OptionSubcategory subcategory = ConfigUtils.getSubCategory(page, optionPage.category(), optionPage.subcategory());
                 Object pageInstance = ConfigUtils.getField(field, instance);
                 if (pageInstance == null) continue;
@@ -264,22 +344,19 @@ public class Config {
                 }
                 if (optionPage.location() == PageLocation.TOP) subcategory.topButtons.add(button);
                 else subcategory.bottomButtons.add(button);
-            } else if (field.isAnnotationPresent(HUD.class)) {
+            } else if (fieldData.hud) {
                 HUDUtils.addHudOptions(page, field, instance, this);
-            } else if (field.isAnnotationPresent(SubConfig.class)) {
+            } else if (fieldData.subConfig) {
                 if (page != mod.defaultPage) continue;
                 Config config = (Config) ConfigUtils.getField(field, instance);
                 if (config == null) continue;
                 subMods.add(config.mod);
             }
         }
-        for (Method method : targetClass.getDeclaredMethods()) {
-            Button button = ConfigUtils.findAnnotation(method, Button.class);
-            String optionName = pagePath + method.getName();
-            if (button != null) {
-                BasicOption option = ConfigUtils.addOptionToPage(page, method, instance);
-                optionNames.put(optionName, option);
-            }
+        for (ConfigMetadata.MethodData methodData : metadata.buttonMethods) {
+            String optionName = pagePath + methodData.method.getName();
+            BasicOption option = ConfigUtils.addOptionToPage(page, methodData.method, instance);
+            optionNames.put(optionName, option);
         }
         if (!subMods.isEmpty()) {
             if (!optionNames.isEmpty()) {
@@ -356,7 +433,7 @@ public class Config {
         BasicOption optionObj = optionNames.get(dependentOption);
         optionNames.get(option).addDependency(optionObj.name, () -> {
             try {
-                return (boolean) optionObj.get();
+                return optionObj.getBoolean();
             } catch (IllegalAccessException ignored) {
                 return true;
             }
@@ -395,9 +472,10 @@ public class Config {
      */
     protected final void hideIf(String option, String dependentOption) {
         if (!optionNames.containsKey(option) || !optionNames.containsKey(dependentOption)) return;
+        BasicOption optionObj = optionNames.get(dependentOption);
         optionNames.get(option).addHideCondition(() -> {
             try {
-                return (boolean) optionNames.get(dependentOption).get();
+                return optionObj.getBoolean();
             } catch (IllegalAccessException ignored) {
                 return true;
             }
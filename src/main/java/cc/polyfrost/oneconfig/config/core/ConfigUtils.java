@@ -35,6 +35,7 @@ import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
 import cc.polyfrost.oneconfig.config.migration.Migrator;
 import cc.polyfrost.oneconfig.gui.elements.config.*;
 import cc.polyfrost.oneconfig.internal.config.annotations.Option;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigMetadata;
 import cc.polyfrost.oneconfig.internal.config.profiles.Profiles;
 import com.google.gson.FieldAttributes;
 import org.jetbrains.annotations.Nullable;
@@ -98,24 +99,17 @@ public class ConfigUtils {
 
     public static ArrayList<BasicOption> getClassOptions(Object object) {
         ArrayList<BasicOption> options = new ArrayList<>();
-        ArrayList<Field> fields = getClassFields(object.getClass());
-        for (Field field : fields) {
-            Option option = findAnnotation(field, Option.class);
-            if (option == null) continue;
-            options.add(getOption(option, field, object));
+        for (ConfigMetadata.FieldData field : ConfigMetadata.get(object.getClass()).allFields) {
+            if (field.option == null) continue;
+            options.add(getOption(field.option, field.field, object));
         }
         return options;
     }
 
     public static ArrayList<Field> getClassFields(Class<?> object) {
-        ArrayList<Field> fields = new ArrayList<>(Arrays.asList(object.getDeclaredFields()));
-        Class<?> parentClass = object;
-        Class<?> clazz = object;
-        while (true) {
-            clazz = clazz.getSuperclass();
-            if (clazz != null && clazz != parentClass) fields.addAll(Arrays.asList(clazz.getDeclaredFields()));
-            else break;
-            parentClass = clazz;
+        ArrayList<Field> fields = new ArrayList<>();
+        for (ConfigMetadata.FieldData field : ConfigMetadata.get(object).allFields) {
+            fields.add(field.field);
         }
         return fields;
     }
@@ -186,7 +180,7 @@ public class ConfigUtils {
 
     public static Object getField(Field field, Object parent) {
         try {
-            field.setAccessible(true);
+            if (!field.isAccessible()) field.setAccessible(true);
             return field.get(parent);
         } catch (Exception ignored) {
             return null;
@@ -195,7 +189,7 @@ public class ConfigUtils {
 
     public static void setField(Field field, Object value, Object parent) {
         try {
-            field.setAccessible(true);
+            if (!field.isAccessible()) field.setAccessible(true);
             field.set(parent, value);
         } catch (Exception ignored) {
         }
@@ -33,7 +33,10 @@ import cc.polyfrost.oneconfig.platform.Platform;
 import java.util.ArrayList;
 
 public class OneKeyBind {
-
+    /**
+     * Whether mouse buttons, which are stored as button - 100, are offset back for {@link UKeyboard} (1.13+).
+     */
+    private static final boolean MODERN_KEYS = Platform.getInstance().getMinecraftVersion() >= 11300;
     protected final ArrayList<Integer> keyBinds = new ArrayList<>();
     protected transient Runnable runnable;
     protected transient boolean hasRun;
@@ -61,7 +64,7 @@ public class OneKeyBind {
     public boolean isActive() {
         if (keyBinds.size() == 0) return false;
         for (int keyBind : keyBinds) {
-            if (!UKeyboard.isKeyDown(Platform.getInstance().getMinecraftVersion() >= 11300 && keyBind < 0 ? keyBind + 100 : keyBind)) {
+            if (!UKeyboard.isKeyDown(MODERN_KEYS && keyBind < 0 ? keyBind + 100 : keyBind)) {
                 hasRun = false;
                 return false;
             }
@@ -78,6 +81,14 @@ public class OneKeyBind {
         hasRun = true;
     }
 
+    /**
+     * Mark the keys as released, so the Runnable can run again the next time they are all pressed.
+     * This is what {@link #isActive()} does when it finds a key that is not pressed.
+     */
+    public void release() {
+        hasRun = false;
+    }
+
     /**
      * @return The set keys as the name of the keys
      */
@@ -85,7 +96,7 @@ public class OneKeyBind {
         StringBuilder sb = new StringBuilder();
         for (int keyBind : keyBinds) {
             if (sb.length() != 0) sb.append(" + ");
-            sb.append(Platform.getI18nPlatform().getKeyName(Platform.getInstance().getMinecraftVersion() >= 11300 ? keyBind + 100 : keyBind, -1));
+            sb.append(Platform.getI18nPlatform().getKeyName(MODERN_KEYS ? keyBind + 100 : keyBind, -1));
         }
         return sb.toString().trim();
     }
@@ -30,6 +30,7 @@ import cc.polyfrost.oneconfig.gui.animations.Animation;
 import cc.polyfrost.oneconfig.gui.animations.ColorAnimation;
 import cc.polyfrost.oneconfig.gui.animations.DummyAnimation;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigMetadata;
 import cc.polyfrost.oneconfig.internal.utils.DescriptionRenderer;
 import cc.polyfrost.oneconfig.libs.universal.ChatColor;
 import cc.polyfrost.oneconfig.libs.universal.UResolution;
@@ -40,7 +41,12 @@ import cc.polyfrost.oneconfig.utils.color.ColorPalette;
 import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -61,8 +67,21 @@ public abstract class BasicOption {
     private final Map<String, Supplier<Boolean>> dependencies = new HashMap<>();
     private final List<Runnable> listeners = new ArrayList<>();
     private final List<Supplier<Boolean>> hideConditions = new ArrayList<>();
+    private final List<String> failedDependencies = new ArrayList<>();
+    private boolean stateValid = false;
+    private long stateFrame;
+    private boolean enabled;
+    private boolean hidden;
+    private int warningOthers;
+    @Nullable
+    private String warningDescription;
     private Animation descriptionAnimation = new DummyAnimation(0f);
     private float hoverTime = 0f;
+    private MethodHandle getter;
+    private MethodHandle setter;
+    private MethodHandle booleanGetter;
+    private MethodHandle intGetter;
+    private MethodHandle floatGetter;
 
     /**
      * Initialize option
@@ -83,7 +102,75 @@ public abstract class BasicOption {
         this.category = category;
         this.subcategory = subcategory;
         this.size = size;
-        if (field != null) field.setAccessible(true);
+        if (field != null) {
+            field.setAccessible(true);
+            bindAccessors();
+        }
+    }
+
+    /**
+     * Bind the field accessors once, as (parent) -> value handles that work for both static and instance fields,
+     * so reads and writes do not go through {@link Field#get(Object)} and {@link Field#set(Object, Object)} every frame.
+     * If a handle can't be bound, the reflective accessor is used instead.
+     */
+    private void bindAccessors() {
+        ConfigMetadata.FieldData data = ConfigMetadata.get(field);
+        if (data == null) return;
+        try {
+            getter = adapt(data.getter(), MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | WrongMethodTypeException ignored) {
+        }
+        MethodHandle rawSetter = data.setter();
+        if (rawSetter == null) return;
+        try {
+            setter = adapt(rawSetter, MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (WrongMethodTypeException ignored) {
+        }
+    }
+
+    private MethodHandle adapt(MethodHandle handle, MethodType type) {
+        if (Modifier.isStatic(field.getModifiers())) handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        return handle.asType(type);
+    }
+
+    /**
+     * Bind a getter returning the given primitive type. If the field's type can't be converted to it by
+     * {@link MethodHandle#asType(MethodType)} (a float field read as int, for example), the boxed value is converted
+     * like {@link Number#intValue()} and friends would.
+     */
+    private MethodHandle primitiveGetter(Class<?> type) throws IllegalAccessException {
+        ConfigMetadata.FieldData data = ConfigMetadata.get(field);
+        MethodHandle handle = data == null ? MethodHandles.lookup().unreflectGetter(field) : data.getter();
+        try {
+            return adapt(handle, MethodType.methodType(type, Object.class));
+        } catch (WrongMethodTypeException e) {
+            MethodHandle converter;
+            try {
+                converter = MethodHandles.lookup().findStatic(BasicOption.class, type == boolean.class ? "toBoolean" : type == int.class ? "toInt" : "toFloat", MethodType.methodType(type, Object.class));
+            } catch (NoSuchMethodException ex) {
+                throw new IllegalStateException(ex);
+            }
+            return MethodHandles.filterReturnValue(adapt(handle, MethodType.methodType(Object.class, Object.class)), converter);
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        return (Boolean) value;
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private static float toFloat(Object value) {
+        return ((Number) value).floatValue();
+    }
+
+    private static RuntimeException rethrow(Throwable t) throws IllegalAccessException {
+        if (t instanceof IllegalAccessException) throw (IllegalAccessException) t;
+        if (t instanceof RuntimeException) return (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        return new RuntimeException(t);
     }
 
     /**
@@ -91,7 +178,18 @@ public abstract class BasicOption {
      */
     protected void set(Object object) throws IllegalAccessException {
         if (field == null) return;
-        field.set(parent, object);
+        if (setter == null) {
+            field.set(parent, object);
+        } else {
+            try {
+                setter.invokeExact(parent, object);
+            } catch (ClassCastException | WrongMethodTypeException e) {
+                // the handle only unboxes the exact wrapper type, reflection also widens (an Integer into a float field)
+                field.set(parent, object);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
         this.triggerListeners();
     }
 
@@ -104,7 +202,57 @@ public abstract class BasicOption {
      */
     public Object get() throws IllegalAccessException {
         if (field == null) return null;
-        return field.get(parent);
+        if (getter == null) return field.get(parent);
+        try {
+            return (Object) getter.invokeExact(parent);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Read a boolean (or Boolean) variable without boxing.
+     *
+     * @return value of variable, false if this option has no variable
+     */
+    public boolean getBoolean() throws IllegalAccessException {
+        if (field == null) return false;
+        if (booleanGetter == null) booleanGetter = primitiveGetter(boolean.class);
+        try {
+            return (boolean) booleanGetter.invokeExact(parent);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Read an int (or Integer) variable without boxing, other number variables are converted.
+     *
+     * @return value of variable, 0 if this option has no variable
+     */
+    public int getInt() throws IllegalAccessException {
+        if (field == null) return 0;
+        if (intGetter == null) intGetter = primitiveGetter(int.class);
+        try {
+            return (int) intGetter.invokeExact(parent);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
+    }
+
+    /**
+     * Read a float (or Float) variable without boxing, other number variables are converted.
+     *
+     * @return value of variable, 0 if this option has no variable
+     */
+    public float getFloat() throws IllegalAccessException {
+        if (field == null) return 0f;
+        if (floatGetter == null) floatGetter = primitiveGetter(float.class);
+        try {
+            return (float) floatGetter.invokeExact(parent);
+        } catch (Throwable t) {
+            throw rethrow(t);
+        }
     }
 
     /**
@@ -149,41 +297,7 @@ public abstract class BasicOption {
         if (hovered) hoverTime += GuiUtils.getDeltaTime();
         else hoverTime = 0;
 
-        @Nullable String warningDescription = null;
-        int others = 0;
-        List<String> options = new ArrayList<>();
-        if (!dependencies.isEmpty()) {
-            for (Map.Entry<String, Supplier<Boolean>> dependency : dependencies.entrySet()) {
-                String name = dependency.getKey();
-                Supplier<Boolean> supplier = dependency.getValue();
-                if (name.startsWith("unknown-")) {
-                    others++;
-                    continue;
-                }
-
-                if (!supplier.get()) {
-                    options.add(name);
-                }
-            }
-        }
-        if (!options.isEmpty() || others != 0) {
-            boolean knownOptions = options.isEmpty();
-            StringBuilder builder = new StringBuilder("Option disabled by ");
-            for (String mod : options) {
-                builder.append("\"")
-                        .append(mod)
-                        .append("\", ");
-            }
-            builder = new StringBuilder(builder.substring(0, builder.length() - 2));
-            if (others != 0) {
-                if (knownOptions) builder.append(" and ");
-                builder.append(others)
-                        .append(" other option")
-                        .append(others == 1 ? "" : "s");
-            }
-            builder.append(".");
-            warningDescription = builder.toString();
-        }
+        updateState();
 
         if (!description.trim().isEmpty()) {
             DescriptionRenderer.drawDescription(vg, x, y, description, warningDescription, () -> descriptionAnimation, (a) -> descriptionAnimation = a, null, shouldDrawDescription(), (UResolution.getWindowWidth() / 2f < inputHandler.mouseX()) ? DescriptionRenderer.DescriptionPosition.RIGHT : DescriptionRenderer.DescriptionPosition.LEFT, inputHandler);
@@ -211,17 +325,86 @@ public abstract class BasicOption {
      * @return If the option is enabled, based on the dependencies
      */
     public boolean isEnabled() {
-        for (Supplier<Boolean> dependency : dependencies.values()) {
-            if (!dependency.get()) return false;
-        }
-        return true;
+        updateState();
+        return enabled;
     }
 
     public boolean isHidden() {
+        updateState();
+        return hidden;
+    }
+
+    /**
+     * Re-evaluate the dependencies and hide conditions if needed. They are evaluated at most once per frame, since
+     * the GUI asks for them several times per frame and mods can change the fields behind them at any time.
+     */
+    private void updateState() {
+        if (stateValid && stateFrame == GuiUtils.getFrameCount()) return;
+        stateValid = true;
+        stateFrame = GuiUtils.getFrameCount();
+
+        boolean enabled = true;
+        boolean changed = false;
+        int failed = 0;
+        int others = 0;
+        for (Map.Entry<String, Supplier<Boolean>> dependency : dependencies.entrySet()) {
+            String name = dependency.getKey();
+            if (name.startsWith("unknown-")) {
+                others++;
+                if (!dependency.getValue().get()) enabled = false;
+                continue;
+            }
+            if (dependency.getValue().get()) continue;
+            enabled = false;
+            if (failed == failedDependencies.size()) {
+                failedDependencies.add(name);
+                changed = true;
+            } else if (!failedDependencies.get(failed).equals(name)) {
+                failedDependencies.set(failed, name);
+                changed = true;
+            }
+            failed++;
+        }
+        if (failed != failedDependencies.size()) {
+            failedDependencies.subList(failed, failedDependencies.size()).clear();
+            changed = true;
+        }
+        this.enabled = enabled;
+
+        boolean hidden = false;
         for (Supplier<Boolean> condition : hideConditions) {
-            if (condition.get()) return true;
+            if (condition.get()) {
+                hidden = true;
+                break;
+            }
+        }
+        this.hidden = hidden;
+
+        if (changed || others != warningOthers) {
+            warningOthers = others;
+            warningDescription = buildWarning(others);
+        }
+    }
+
+    @Nullable
+    private String buildWarning(int others) {
+        if (failedDependencies.isEmpty() && others == 0) return null;
+        boolean knownOptions = failedDependencies.isEmpty();
+        StringBuilder builder = new StringBuilder("Option disabled by ");
+        for (String option : failedDependencies) {
+            builder.append("\"")
+                    .append(option)
+                    .append("\", ");
+        }
+        builder.setLength(builder.length() - 2);
+        if (others != 0) {
+            if (knownOptions) builder.append(" and ");
+            builder.append(others)
+                    .append(" other option")
+                    .append(others == 1 ? "" : "s");
         }
-        return false;
+        builder.append(".");
+        return builder.toString();
     }
 
     /**
@@ -232,6 +415,7 @@ public abstract class BasicOption {
      */
     public void addDependency(String optionName, Supplier<Boolean> supplier) {
         this.dependencies.put(optionName, supplier);
+        this.stateValid = false;
     }
 
     /**
@@ -243,6 +427,7 @@ public abstract class BasicOption {
     @Deprecated
     public void addDependency(Supplier<Boolean> supplier) {
         this.dependencies.put("unknown-" + UUID.randomUUID(), supplier);
+        this.stateValid = false;
     }
 
     /**
@@ -261,6 +446,7 @@ public abstract class BasicOption {
      */
     public void addHideCondition(Supplier<Boolean> supplier) {
         this.hideConditions.add(supplier);
+        this.stateValid = false;
     }
 
     /**
@@ -282,6 +468,7 @@ public abstract class BasicOption {
      */
     public void setParent(Object parent) {
         this.parent = parent;
+        this.stateValid = false;
     }
 
     public void finishUpAndClose() {
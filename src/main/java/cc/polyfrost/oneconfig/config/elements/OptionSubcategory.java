@@ -26,26 +26,56 @@
 
 package cc.polyfrost.oneconfig.config.elements;
 
-import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.gui.elements.config.ConfigPageButton;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
+import cc.polyfrost.oneconfig.internal.gui.SearchIndex;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class OptionSubcategory {
     private final String name;
     public ArrayList<BasicOption> options = new ArrayList<>();
     public ArrayList<ConfigPageButton> topButtons = new ArrayList<>();
     public ArrayList<ConfigPageButton> bottomButtons = new ArrayList<>();
-    private List<BasicOption> filteredOptions = new ArrayList<>();
+    private final List<BasicOption> filteredOptions = new ArrayList<>();
+    private final List<ConfigPageButton> filteredTop = new ArrayList<>();
+    private final List<ConfigPageButton> filteredBottom = new ArrayList<>();
+    private final List<BasicOption> searchedOptions = new ArrayList<>();
+    private final List<ConfigPageButton> searchedTop = new ArrayList<>();
+    private final List<ConfigPageButton> searchedBottom = new ArrayList<>();
+    private int searchVersion = -1;
+    private int searchedSize = -1;
+    private final List<BasicOption> layoutOptions = new ArrayList<>();
+    private int[] layoutHeights = new int[0];
+    /**
+     * Index of the first option of every row, rows hold one option, or two options of size 1 side by side
+     */
+    private int[] rowStart = new int[0];
+    /**
+     * Offset of every row from the top of the first row
+     */
+    private int[] rowY = new int[0];
+    private int[] rowHeight = new int[0];
+    private int rowCount;
+    private int optionsHeight;
     private int drawLastY;
+    private int viewTop = Integer.MIN_VALUE;
+    private int viewBottom = Integer.MAX_VALUE;
     private final String category;
+    private static final ClassValue<Boolean> drawsOverlay = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("drawLast", long.class, int.class, int.class, InputHandler.class).getDeclaringClass() != BasicOption.class;
+            } catch (NoSuchMethodException e) {
+                return true;
+            }
+        }
+    };
 
     public OptionSubcategory(String name, String category) {
         this.name = name;
@@ -53,87 +83,179 @@ public class OptionSubcategory {
     }
 
     public int draw(long vg, int x, int y, InputHandler inputHandler) {
+        return draw(vg, x, y, Integer.MIN_VALUE, Integer.MAX_VALUE, inputHandler);
+    }
+
+    /**
+     * Draw the subcategory, skipping the elements that are entirely outside the visible area
+     *
+     * @param viewTop    The top of the visible area
+     * @param viewBottom The bottom of the visible area
+     * @return The height of the subcategory
+     */
+    public int draw(long vg, int x, int y, int viewTop, int viewBottom, InputHandler inputHandler) {
         NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
-        String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
-        //todo bugs: "Test Page" in test mod doesn't get filtered nicely
-        boolean shouldNotFilter = filter.equals("") || SearchUtils.isSimilar(category, filter) || SearchUtils.isSimilar(name, filter);
-        filteredOptions = options.stream().filter(option -> !option.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(option.name, filter))).collect(Collectors.toList());
-        List<ConfigPageButton> filteredTop = topButtons.stream().filter(page -> !page.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(page.name, filter) || SearchUtils.isSimilar(page.description, filter))).collect(Collectors.toList());
-        List<ConfigPageButton> filteredBottom = bottomButtons.stream().filter(page -> !page.isHidden() && (shouldNotFilter || SearchUtils.isSimilar(page.name, filter) || SearchUtils.isSimilar(page.description, filter))).collect(Collectors.toList());
-        if (filteredOptions.size() == 0 && filteredTop.size() == 0 && filteredBottom.size() == 0) return 0;
+        this.viewTop = viewTop;
+        this.viewBottom = viewBottom;
+        updateSearch();
+        filteredOptions.clear();
+        for (BasicOption option : searchedOptions) {
+            if (!option.isHidden()) filteredOptions.add(option);
+        }
+        filterHidden(searchedTop, filteredTop);
+        filterHidden(searchedBottom, filteredBottom);
+        if (filteredOptions.size() == 0 && filteredTop.size() == 0 && filteredBottom.size() == 0) {
+            rowCount = 0;
+            return 0;
+        }
+        updateLayout();
         int optionY = y;
         if (!name.equals("")) {
-            nanoVGHelper.drawText(vg, name, x, y + 12, Colors.WHITE_90, 24, Fonts.MEDIUM);
+            if (isVisible(y, 36)) nanoVGHelper.drawText(vg, name, x, y + 12, Colors.WHITE_90, 24, Fonts.MEDIUM);
             optionY += 36;
         }
 
-        for (ConfigPageButton page : filteredTop) {
-            page.draw(vg, x, optionY, inputHandler);
-            optionY += page.getHeight() + 16;
-        }
+        optionY = drawPages(vg, x, optionY, filteredTop, inputHandler);
 
+        drawLastY = optionY + 16;
         if (filteredOptions.size() > 0) {
-            int backgroundSize = 16;
-            for (int i = 0; i < filteredOptions.size(); i++) {
-                BasicOption option = filteredOptions.get(i);
-                if (i + 1 < filteredOptions.size()) {
-                    BasicOption nextOption = filteredOptions.get(i + 1);
-                    if (option.size == 1 && nextOption.size == 1) {
-                        backgroundSize += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                        i++;
-                        continue;
-                    }
-                }
-                backgroundSize += option.getHeight() + 16;
-            }
-            nanoVGHelper.drawRoundedRect(vg, x - 16, optionY, 1024, backgroundSize, Colors.GRAY_900, 20);
+            if (isVisible(optionY, optionsHeight)) nanoVGHelper.drawRoundedRect(vg, x - 16, optionY, 1024, optionsHeight, Colors.GRAY_900, 20);
             optionY += 16;
+            for (int row = firstVisibleRow(optionY); row < rowCount; row++) {
+                int rowTop = optionY + rowY[row];
+                if (rowTop > viewBottom) break;
+                BasicOption option = filteredOptions.get(rowStart[row]);
+                option.draw(vg, x, rowTop, inputHandler);
+                if (isPair(row)) filteredOptions.get(rowStart[row] + 1).draw(vg, x + 512, rowTop, inputHandler);
+            }
+            optionY += optionsHeight;
         }
 
-        drawLastY = optionY;
-        if (filteredOptions.size() > 0) {
-            for (int i = 0; i < filteredOptions.size(); i++) {
-                BasicOption option = filteredOptions.get(i);
-                option.draw(vg, x, optionY, inputHandler);
-                if (i + 1 < filteredOptions.size()) {
-                    BasicOption nextOption = filteredOptions.get(i + 1);
-                    if (option.size == 1 && nextOption.size == 1) {
-                        nextOption.draw(vg, x + 512, optionY, inputHandler);
-                        optionY += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                        i++;
-                        continue;
-                    }
-                }
-                optionY += option.getHeight() + 16;
+        optionY = drawPages(vg, x, optionY, filteredBottom, inputHandler);
+
+        return optionY - y;
+    }
+
+    private int drawPages(long vg, int x, int y, List<ConfigPageButton> pages, InputHandler inputHandler) {
+        for (ConfigPageButton page : pages) {
+            int height = page.getHeight();
+            if (isVisible(y, height)) page.draw(vg, x, y, inputHandler);
+            y += height + 16;
+        }
+        return y;
+    }
+
+    private boolean isVisible(int y, int height) {
+        return y + height >= viewTop && y <= viewBottom;
+    }
+
+    private boolean isPair(int row) {
+        int next = row + 1 < rowCount ? rowStart[row + 1] : filteredOptions.size();
+        return next - rowStart[row] == 2;
+    }
+
+    /**
+     * @param top The y of the first row
+     * @return The first row that is not entirely above the visible area
+     */
+    private int firstVisibleRow(int top) {
+        int low = 0;
+        int high = rowCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (top + rowY[mid] + rowHeight[mid] < viewTop) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Lay the visible options out in rows, only when the options or their heights changed since the last frame
+     */
+    private void updateLayout() {
+        int size = filteredOptions.size();
+        boolean valid = layoutOptions.size() == size;
+        for (int i = 0; valid && i < size; i++) {
+            BasicOption option = filteredOptions.get(i);
+            valid = layoutOptions.get(i) == option && layoutHeights[i] == option.getHeight();
+        }
+        if (valid) return;
+
+        layoutOptions.clear();
+        layoutOptions.addAll(filteredOptions);
+        if (layoutHeights.length < size) {
+            layoutHeights = new int[size];
+            rowStart = new int[size];
+            rowY = new int[size];
+            rowHeight = new int[size];
+        }
+        for (int i = 0; i < size; i++) layoutHeights[i] = filteredOptions.get(i).getHeight();
+
+        rowCount = 0;
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            BasicOption option = filteredOptions.get(i);
+            int height = layoutHeights[i];
+            rowStart[rowCount] = i;
+            if (i + 1 < size && option.size == 1 && filteredOptions.get(i + 1).size == 1) {
+                height = Math.max(height, layoutHeights[i + 1]);
+                i++;
             }
-            optionY += 16;
+            rowY[rowCount] = offset;
+            rowHeight[rowCount] = height;
+            rowCount++;
+            offset += height + 16;
+        }
+        optionsHeight = offset + 16;
+    }
+
+    /**
+     * Match the options and page buttons against the search query, only when the query changes
+     */
+    private void updateSearch() {
+        int version = SearchIndex.getVersion();
+        int size = options.size() + topButtons.size() + bottomButtons.size();
+        if (version == searchVersion && size == searchedSize) return;
+        searchVersion = version;
+        searchedSize = size;
+        //todo bugs: "Test Page" in test mod doesn't get filtered nicely
+        boolean shouldNotFilter = !SearchIndex.isSearching() || SearchIndex.matches(category) || SearchIndex.matches(name);
+        searchedOptions.clear();
+        for (BasicOption option : options) {
+            if (shouldNotFilter || SearchIndex.matches(option.name)) searchedOptions.add(option);
         }
+        searchPages(topButtons, searchedTop, shouldNotFilter);
+        searchPages(bottomButtons, searchedBottom, shouldNotFilter);
+    }
 
-        for (ConfigPageButton page : filteredBottom) {
-            page.draw(vg, x, optionY, inputHandler);
-            optionY += page.getHeight() + 16;
+    private static void searchPages(List<ConfigPageButton> pages, List<ConfigPageButton> searched, boolean shouldNotFilter) {
+        searched.clear();
+        for (ConfigPageButton page : pages) {
+            if (shouldNotFilter || SearchIndex.matches(page.name) || SearchIndex.matches(page.description)) searched.add(page);
         }
+    }
 
-        return optionY - y;
+    private static void filterHidden(List<ConfigPageButton> pages, List<ConfigPageButton> filtered) {
+        filtered.clear();
+        for (ConfigPageButton page : pages) {
+            if (!page.isHidden()) filtered.add(page);
+        }
     }
 
     public void drawLast(long vg, int x, InputHandler inputHandler) {
-        for (int i = 0; i < filteredOptions.size(); i++) {
-            BasicOption option = filteredOptions.get(i);
-            option.drawLast(vg, x, drawLastY, inputHandler);
-            if (i + 1 < filteredOptions.size()) {
-                BasicOption nextOption = filteredOptions.get(i + 1);
-                if (option.size == 1 && nextOption.size == 1) {
-                    nextOption.drawLast(vg, x + 512, drawLastY, inputHandler);
-                    drawLastY += Math.max(option.getHeight(), nextOption.getHeight()) + 16;
-                    i++;
-                    continue;
-                }
-            }
-            drawLastY += option.getHeight() + 16;
+        for (int row = 0; row < rowCount; row++) {
+            int rowTop = drawLastY + rowY[row];
+            boolean visible = isVisible(rowTop, rowHeight[row]);
+            drawLast(vg, filteredOptions.get(rowStart[row]), x, rowTop, visible, inputHandler);
+            if (isPair(row)) drawLast(vg, filteredOptions.get(rowStart[row] + 1), x + 512, rowTop, visible, inputHandler);
         }
     }
 
+    private static void drawLast(long vg, BasicOption option, int x, int y, boolean visible, InputHandler inputHandler) {
+        // options that only draw their description can be skipped, others might draw popups reaching into the visible area
+        if (visible || drawsOverlay.get(option.getClass())) option.drawLast(vg, x, y, inputHandler);
+    }
+
     public String getName() {
         return name;
     }
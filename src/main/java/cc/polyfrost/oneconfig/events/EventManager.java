@@ -28,17 +28,32 @@ package cc.polyfrost.oneconfig.events;
 
 import cc.polyfrost.oneconfig.config.core.exceptions.InvalidTypeException;
 import cc.polyfrost.oneconfig.libs.eventbus.EventBus;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.eventbus.exception.ExceptionHandler;
+import cc.polyfrost.oneconfig.libs.eventbus.invokers.InvokerType;
 import cc.polyfrost.oneconfig.libs.eventbus.invokers.LMFInvoker;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages all events from OneConfig.
+ * <p>
+ * Listeners are kept in a precomputed array per concrete event class, which is replaced (copy-on-write) whenever
+ * a listener is registered or unregistered. Posting an event therefore never locks or allocates, and listeners
+ * can be (un)registered from any thread.
  */
 public final class EventManager {
     /**
@@ -46,11 +61,26 @@ public final class EventManager {
      */
     public static final EventManager INSTANCE = new EventManager();
     private static final Logger LOGGER = LogManager.getLogger("OneConfig/EventManager");
-    private final EventBus eventBus = new EventBus(new LMFInvoker(), new OneConfigExceptionHandler());
-    private final Set<Object> listeners = new HashSet<>();
+    private static final Listener[] NO_LISTENERS = new Listener[0];
+    private final OneConfigExceptionHandler exceptionHandler = new OneConfigExceptionHandler();
+    private final EventBus eventBus = new EventBus(new LMFInvoker(), exceptionHandler);
+    /**
+     * The subscribers of {@link #eventBus} by event class, or null if they can't be read, see {@link #hasListeners(Class)}.
+     */
+    private final Map<?, ?> busSubscribers = findBusSubscribers(eventBus);
+    private final InvokerType invoker = new LMFInvoker();
+    private final ConcurrentHashMap<Class<?>, ListenerList> listenerLists = new ConcurrentHashMap<>();
+    /**
+     * All registered objects with their listeners. Only accessed while holding the lock on this map.
+     */
+    private final Map<Object, List<Listener>> listeners = new HashMap<>();
+    private volatile boolean metricsEnabled = false;
 
     /**
      * Returns the {@link EventBus} instance.
+     * <p>
+     * Listeners registered directly to the bus still receive events posted through {@link #post(Object)}, but
+     * they don't benefit from the precomputed dispatch and aren't included in {@link #getMetrics()}.
      *
      * @return The {@link EventBus} instance.
      */
@@ -59,40 +89,239 @@ public final class EventManager {
     }
 
     /**
-     * Registers an object to the {@link EventBus}.
+     * Registers an object, subscribing all of its methods annotated with {@link Subscribe}.
      *
      * @param object The object to register.
      * @see EventBus#register(Object)
      */
     public void register(Object object) {
-        if (listeners.add(object)) {
-            eventBus.register(object);
-        } else {
-            LOGGER.warn("Attempted to register an already registered listener: " + object);
+        synchronized (listeners) {
+            if (listeners.containsKey(object)) {
+                LOGGER.warn("Attempted to register an already registered listener: " + object);
+                return;
+            }
+            List<Listener> registered = new ArrayList<>();
+            for (Method method : object.getClass().getDeclaredMethods()) {
+                Subscribe subscribe = method.getAnnotation(Subscribe.class);
+                if (subscribe == null) continue;
+                if (method.getParameterCount() != 1) {
+                    throw new IllegalArgumentException("Subscribed method " + method + " must have exactly one parameter");
+                }
+                Class<?> eventClass = method.getParameterTypes()[0];
+                if (eventClass.isPrimitive()) {
+                    throw new IllegalArgumentException("Cannot subscribe method " + method + " to a primitive type");
+                }
+                ListenerList list = listenerLists.computeIfAbsent(eventClass, c -> new ListenerList());
+                Listener listener = new Listener(list, subscribe.priority(), invoker.setup(object, object.getClass(), eventClass, method));
+                list.add(listener);
+                registered.add(listener);
+            }
+            listeners.put(object, registered);
         }
     }
 
     /**
-     * Unregisters an object from the {@link EventBus}.
+     * Unregisters an object.
      *
      * @param object The object to unregister.
      * @see EventBus#unregister(Object)
      */
     public void unregister(Object object) {
-        listeners.remove(object);
-        eventBus.unregister(object);
+        synchronized (listeners) {
+            List<Listener> registered = listeners.remove(object);
+            if (registered == null) return;
+            for (Listener listener : registered) {
+                listener.list.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Checks whether anything is subscribed to the given event class, so that callers can skip constructing and
+     * posting events that nobody consumes. This is kept up to date on every (un)register, including listeners
+     * registered directly to {@link #getEventBus()}.
+     *
+     * @param eventClass The exact class of the event.
+     * @return Whether the event class has at least one listener.
+     */
+    public boolean hasListeners(Class<?> eventClass) {
+        ListenerList list = listenerLists.get(eventClass);
+        if (list != null && list.listeners.length != 0) return true;
+        // if the bus can't be inspected, assume someone is listening rather than dropping their events
+        if (busSubscribers == null) return true;
+        Object subscribers = busSubscribers.get(eventClass);
+        return subscribers != null && (!(subscribers instanceof Collection) || !((Collection<?>) subscribers).isEmpty());
+    }
+
+    private static Map<?, ?> findBusSubscribers(EventBus bus) {
+        try {
+            Field field = EventBus.class.getDeclaredField("subscribers");
+            field.setAccessible(true);
+            Object subscribers = field.get(bus);
+            if (subscribers instanceof Map) return (Map<?, ?>) subscribers;
+            LOGGER.warn("Unexpected EventBus subscribers: " + subscribers);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Could not read the EventBus subscribers, every event will be posted", e);
+        }
+        return null;
     }
 
     /**
-     * Posts an event to the {@link EventBus}.
+     * Posts an event to all listeners subscribed to its exact class.
      *
      * @param event The event to post.
      * @see EventBus#post(Object)
      */
     public void post(Object event) {
+        ListenerList list = listenerLists.get(event.getClass());
+        if (list != null) {
+            Listener[] array = list.listeners;
+            if (metricsEnabled) {
+                long start = System.nanoTime();
+                dispatch(array, event);
+                list.posts.increment();
+                list.nanos.add(System.nanoTime() - start);
+            } else {
+                dispatch(array, event);
+            }
+        }
         eventBus.post(event);
     }
 
+    private void dispatch(Listener[] array, Object event) {
+        for (Listener listener : array) {
+            try {
+                listener.method.invoke(event);
+            } catch (Exception e) {
+                exceptionHandler.handle(e);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables collection of per-event metrics. Enabling it adds two {@link System#nanoTime()} calls to every post.
+     *
+     * @param enabled Whether metrics should be collected.
+     * @see #getMetrics()
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metricsEnabled = enabled;
+    }
+
+    /**
+     * @return Whether per-event metrics are being collected.
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Returns a snapshot of the metrics of every event class that has (or had) listeners.
+     * Post counts and times are only collected while {@link #isMetricsEnabled()} is true.
+     *
+     * @return An unmodifiable map of event classes to their metrics.
+     */
+    public Map<Class<?>, EventMetrics> getMetrics() {
+        Map<Class<?>, EventMetrics> metrics = new HashMap<>();
+        for (Map.Entry<Class<?>, ListenerList> entry : listenerLists.entrySet()) {
+            ListenerList list = entry.getValue();
+            metrics.put(entry.getKey(), new EventMetrics(list.posts.sum(), list.listeners.length, list.nanos.sum()));
+        }
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Resets the collected post counts and times.
+     */
+    public void resetMetrics() {
+        for (ListenerList list : listenerLists.values()) {
+            list.posts.reset();
+            list.nanos.reset();
+        }
+    }
+
+    /**
+     * A snapshot of the metrics of an event class.
+     */
+    public static final class EventMetrics {
+        private final long postCount;
+        private final int listenerCount;
+        private final long totalNanos;
+
+        private EventMetrics(long postCount, int listenerCount, long totalNanos) {
+            this.postCount = postCount;
+            this.listenerCount = listenerCount;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * @return The amount of times the event was posted.
+         */
+        public long getPostCount() {
+            return postCount;
+        }
+
+        /**
+         * @return The amount of listeners currently subscribed to the event.
+         */
+        public int getListenerCount() {
+            return listenerCount;
+        }
+
+        /**
+         * @return The cumulative time spent dispatching the event, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+    }
+
+    private static final class Listener {
+        private final ListenerList list;
+        private final int priority;
+        private final InvokerType.SubscriberMethod method;
+
+        private Listener(ListenerList list, int priority, InvokerType.SubscriberMethod method) {
+            this.list = list;
+            this.priority = priority;
+            this.method = method;
+        }
+    }
+
+    private static final class ListenerList {
+        private volatile Listener[] listeners = NO_LISTENERS;
+        private final LongAdder posts = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        /**
+         * Must only be called while holding the registration lock.
+         */
+        private void add(Listener listener) {
+            Listener[] old = listeners;
+            int index = old.length;
+            // higher priorities first, in registration order otherwise
+            while (index > 0 && old[index - 1].priority < listener.priority) index--;
+            Listener[] updated = new Listener[old.length + 1];
+            System.arraycopy(old, 0, updated, 0, index);
+            updated[index] = listener;
+            System.arraycopy(old, index, updated, index + 1, old.length - index);
+            listeners = updated;
+        }
+
+        /**
+         * Must only be called while holding the registration lock.
+         */
+        private void remove(Listener listener) {
+            Listener[] old = listeners;
+            for (int i = 0; i < old.length; i++) {
+                if (old[i] != listener) continue;
+                Listener[] updated = Arrays.copyOf(old, old.length - 1);
+                System.arraycopy(old, i + 1, updated, i, old.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
 
     /**
      * Bypass to allow special exceptions to actually crash
@@ -116,7 +116,7 @@ public class ModCard extends BasicElement {
             if (modData.config.canToggle) {
                 colorToggle.setPalette(active ? ColorPalette.PRIMARY : ColorPalette.SECONDARY);
                 modData.config.enabled = active;
-                modData.config.save();
+                modData.config.markDirty();
             } else {
                 toggled = active = true;
             }
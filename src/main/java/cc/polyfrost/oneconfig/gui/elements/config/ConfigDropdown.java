@@ -116,7 +116,7 @@ public class ConfigDropdown extends BasicOption {
 
         int selected = 0;
         try {
-            selected = (int) get();
+            selected = getInt();
         } catch (IllegalAccessException ignored) {
         }
 
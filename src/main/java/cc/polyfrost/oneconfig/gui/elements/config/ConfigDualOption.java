@@ -63,7 +63,7 @@ public class ConfigDualOption extends BasicOption {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         boolean toggled = false;
         try {
-            toggled = (boolean) get();
+            toggled = getBoolean();
             if (posAnimation == null) posAnimation = new EaseOutExpo(0, 228, 356, !toggled);
         } catch (IllegalAccessException ignored) {
         }
@@ -61,7 +61,7 @@ public class ConfigSwitch extends BasicOption {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
         boolean toggled = false;
         try {
-            toggled = (boolean) get();
+            toggled = getBoolean();
             if (animation == null) {
                 animation = new EaseInOutQuad(0, 0, 1, !toggled);
                 color = new ColorAnimation(toggled ? ColorPalette.PRIMARY : ColorPalette.SECONDARY);
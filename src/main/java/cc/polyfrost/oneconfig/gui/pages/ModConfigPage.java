@@ -32,11 +32,11 @@ import cc.polyfrost.oneconfig.config.elements.OptionPage;
 import cc.polyfrost.oneconfig.config.elements.OptionSubcategory;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.gui.elements.BasicButton;
+import cc.polyfrost.oneconfig.internal.gui.SearchIndex;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.renderer.scissor.ScissorHelper;
 import cc.polyfrost.oneconfig.utils.InputHandler;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
 import cc.polyfrost.oneconfig.utils.color.ColorPalette;
 
 import java.util.ArrayList;
@@ -84,7 +84,7 @@ public class ModConfigPage extends Page {
         int optionY = y + (page.categories.size() == 1 ? 16 : 64) + categoryY;
         List<OptionSubcategory> subcategories = getSubcategories();
         for (OptionSubcategory subCategory : subcategories) {
-            optionY += subCategory.draw(vg, x + 30, optionY, inputHandler);
+            optionY += subCategory.draw(vg, x + 30, optionY, viewTop, viewBottom, inputHandler);
         }
         scissorHelper.save();
         scissorHelper.clearScissors(vg);
@@ -101,7 +101,7 @@ public class ModConfigPage extends Page {
         if (categories.size() <= 1) return 0;
         int buttonX = x + 16;
         int returned = 0;
-        boolean searching = !OneConfigGui.INSTANCE.getSearchValue().trim().isEmpty();
+        boolean searching = SearchIndex.isSearching();
 
         for (BasicButton button : categories) {
             if (button.getWidth() == 0) {
@@ -113,7 +113,7 @@ public class ModConfigPage extends Page {
                 categoryY += 48;
             }
             if (searching) {
-                boolean similar = SearchUtils.isSimilar(button.getText(), OneConfigGui.INSTANCE.getSearchValue());
+                boolean similar = SearchIndex.matches(button.getText());
                 boolean selected = button.isToggled();
                 button.setToggled(similar);
                 button.draw(vg, buttonX, y + 16 + returned, inputHandler);
@@ -129,7 +129,7 @@ public class ModConfigPage extends Page {
 
     @Override
     public void finishUpAndClose() {
-        page.mod.config.save();
+        page.mod.config.markDirty();
         OneConfigGui.INSTANCE.closeColorSelector();
         for (OptionSubcategory subCategory : getSubcategories()) {
             for (BasicOption option : subCategory.options) {
@@ -149,33 +149,37 @@ public class ModConfigPage extends Page {
     }
 
     private final ArrayList<OptionSubcategory> empty = new ArrayList<>();
+    private final List<OptionSubcategory> searchedSubcategories = new ArrayList<>();
+    private int searchVersion = -1;
 
     private List<OptionSubcategory> getSubcategories() {
-        if (OneConfigGui.INSTANCE.getSearchValue().isEmpty()) {
+        if (!SearchIndex.isSearching()) {
             if (page.categories.isEmpty()) return empty;
             else return page.categories.get(selectedCategory).subcategories;
-        } else {
-            List<OptionSubcategory> subcategories = new ArrayList<>();
-            for (Map.Entry<String, OptionCategory> category : page.categories.entrySet()) {
-                if (SearchUtils.isSimilar(category.getKey(), OneConfigGui.INSTANCE.getSearchValue())) {
-                    subcategories.addAll(category.getValue().subcategories);
-                } else {
-                    for (OptionSubcategory subcategory : category.getValue().subcategories) {
-                        if (SearchUtils.isSimilar(subcategory.getName(), OneConfigGui.INSTANCE.getSearchValue())) {
-                            subcategories.add(subcategory);
-                        } else {
-                            for (BasicOption option : subcategory.options) {
-                                if (SearchUtils.isSimilar(option.name, OneConfigGui.INSTANCE.getSearchValue())) {
-                                    subcategories.add(subcategory);
-                                    break;
-                                }
+        }
+        int version = SearchIndex.getVersion();
+        if (version == searchVersion) return searchedSubcategories;
+        searchVersion = version;
+        searchedSubcategories.clear();
+        for (Map.Entry<String, OptionCategory> category : page.categories.entrySet()) {
+            if (SearchIndex.matches(category.getKey())) {
+                searchedSubcategories.addAll(category.getValue().subcategories);
+            } else {
+                for (OptionSubcategory subcategory : category.getValue().subcategories) {
+                    if (SearchIndex.matches(subcategory.getName())) {
+                        searchedSubcategories.add(subcategory);
+                    } else {
+                        for (BasicOption option : subcategory.options) {
+                            if (SearchIndex.matches(option.name)) {
+                                searchedSubcategories.add(subcategory);
+                                break;
                             }
                         }
                     }
                 }
             }
-            return subcategories;
         }
+        return searchedSubcategories;
     }
 
     public void switchCategory(String newCategory) {
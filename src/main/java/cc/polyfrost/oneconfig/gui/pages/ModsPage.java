@@ -29,13 +29,12 @@ package cc.polyfrost.oneconfig.gui.pages;
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.data.ModType;
 import cc.polyfrost.oneconfig.config.elements.SubConfig;
-import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.gui.elements.BasicButton;
 import cc.polyfrost.oneconfig.gui.elements.ModCard;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
+import cc.polyfrost.oneconfig.internal.gui.SearchIndex;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
@@ -44,9 +43,16 @@ import cc.polyfrost.oneconfig.utils.color.ColorPalette;
 import java.util.ArrayList;
 
 public class ModsPage extends Page {
+    private static final int COLUMNS = 4;
+    private static final int CARD_HEIGHT = 135;
 
     public final ArrayList<ModCard> modCards = new ArrayList<>();
     private final ArrayList<BasicButton> modCategories = new ArrayList<>();
+    private final ArrayList<ModCard> filteredCards = new ArrayList<>();
+    private boolean filterDirty = true;
+    private int filterCategory = -1;
+    private int filterSearchVersion = -1;
+    private int filterCardCount = -1;
     private int size;
 
     public ModsPage() {
@@ -68,24 +74,55 @@ public class ModsPage extends Page {
     }
 
     public void draw(long vg, int x, int y, InputHandler inputHandler) {
-        String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
-        int iX = x + 16;
-        int iY = y + 72;
-        ArrayList<ModCard> finalModCards = new ArrayList<>(modCards);
-        for (ModCard modCard : finalModCards) {
-            if (inSelection(modCard) && (filter.equals("") || SearchUtils.isSimilar(modCard.getModData().name, filter))) {
-                if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
-                iX += 260;
-                if (iX > x + 796) {
-                    iX = x + 16;
-                    iY += 135;
-                }
+        size = drawCards(vg, x, y, y + 72, inputHandler);
+        if (filteredCards.isEmpty()) {
+            NanoVGHelper.INSTANCE.drawText(vg, "Looks like there is nothing here. Try another category?", x + 16, y + 72, Colors.WHITE_60, 14f, Fonts.MEDIUM);
+        }
+    }
+
+    /**
+     * Draw the cards that match the selected category and search in a grid, only the rows that are on screen are visited.
+     *
+     * @param top The y of the first row
+     * @return The height of the grid, including everything above it
+     */
+    int drawCards(long vg, int x, int y, int top, InputHandler inputHandler) {
+        updateFilter();
+        int count = filteredCards.size();
+        int firstRow = Math.max(0, (int) Math.ceil((y - scroll - CARD_HEIGHT - top) / (float) CARD_HEIGHT));
+        int lastRow = Math.min((count + COLUMNS - 1) / COLUMNS - 1, (int) Math.floor((y + 728 - scroll - top) / (float) CARD_HEIGHT));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = 0; column < COLUMNS; column++) {
+                int index = row * COLUMNS + column;
+                if (index >= count) break;
+                filteredCards.get(index).draw(vg, x + 16 + column * 260, top + row * CARD_HEIGHT, inputHandler);
             }
         }
-        size = iY - y + 135;
-        if (iX == x + 16 && iY == y + 72) {
-            NanoVGHelper.INSTANCE.drawText(vg, "Looks like there is nothing here. Try another category?", x + 16, y + 72, Colors.WHITE_60, 14f, Fonts.MEDIUM);
+        return top - y + (count / COLUMNS) * CARD_HEIGHT + CARD_HEIGHT;
+    }
+
+    /**
+     * Recompute the shown cards, only when the category, the search or the cards changed
+     */
+    private void updateFilter() {
+        int category = getSelectedCategory();
+        int searchVersion = SearchIndex.getVersion();
+        if (!filterDirty && category == filterCategory && searchVersion == filterSearchVersion && modCards.size() == filterCardCount) return;
+        filterDirty = false;
+        filterCategory = category;
+        filterSearchVersion = searchVersion;
+        filterCardCount = modCards.size();
+        filteredCards.clear();
+        for (ModCard modCard : modCards) {
+            if (inSelection(modCard) && SearchIndex.matches(modCard.getModData().name)) filteredCards.add(modCard);
+        }
+    }
+
+    private int getSelectedCategory() {
+        for (int i = 0; i < modCategories.size(); i++) {
+            if (modCategories.get(i).isToggled()) return i;
         }
+        return 0;
     }
 
     @Override
@@ -113,6 +150,7 @@ public class ModsPage extends Page {
     }
 
     public void reloadMods() {
+        filterDirty = true;
         modCards.clear();
         for (Mod modData : ConfigCore.mods) {
             if (this instanceof SubModsPage) {
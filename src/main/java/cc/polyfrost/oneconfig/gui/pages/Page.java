@@ -53,6 +53,10 @@ public abstract class Page {
     private boolean mouseWasDown, dragging;
     private float yStart;
     protected float scroll;
+    /**
+     * The part of the screen the page is visible in, anything drawn outside of it is cut off
+     */
+    protected int viewTop = Integer.MIN_VALUE, viewBottom = Integer.MAX_VALUE;
     public final ArrayList<Page> parents = new ArrayList<>();
     private String previousSearch = "";
 
@@ -82,6 +86,8 @@ public abstract class Page {
         ScissorHelper scissorHelper = ScissorHelper.INSTANCE;
         int maxScroll = getMaxScrollHeight();
         int scissorOffset = drawStatic(vg, x, y, inputHandler);
+        viewTop = y + scissorOffset;
+        viewBottom = y + 728;
         if (OneConfigGui.INSTANCE != null) {
             if (!Objects.equals(previousSearch, OneConfigGui.INSTANCE.getSearchValue())) {
                 previousSearch = OneConfigGui.INSTANCE.getSearchValue();
@@ -27,15 +27,10 @@
 package cc.polyfrost.oneconfig.gui.pages;
 
 import cc.polyfrost.oneconfig.config.data.Mod;
-import cc.polyfrost.oneconfig.gui.OneConfigGui;
-import cc.polyfrost.oneconfig.gui.elements.ModCard;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
 import cc.polyfrost.oneconfig.utils.InputHandler;
-import cc.polyfrost.oneconfig.utils.SearchUtils;
-
-import java.util.ArrayList;
 
 public class SubModsPage extends ModsPage {
 
@@ -49,21 +44,7 @@ public class SubModsPage extends ModsPage {
     }
 
     public void draw(long vg, int x, int y, InputHandler inputHandler) {
-        String filter = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue().toLowerCase().trim();
-        int iX = x + 16;
-        int iY = y + 16;
-        ArrayList<ModCard> finalModCards = new ArrayList<>(modCards);
-        for (ModCard modCard : finalModCards) {
-            if (filter.isEmpty() || SearchUtils.isSimilar(modCard.getModData().name, filter)) {
-                if (iY + 135 >= y - scroll && iY <= y + 728 - scroll) modCard.draw(vg, iX, iY, inputHandler);
-                iX += 260;
-                if (iX > x + 796) {
-                    iX = x + 16;
-                    iY += 135;
-                }
-            }
-        }
-        size = iY - y + 135;
+        size = drawCards(vg, x, y, y + 16, inputHandler);
     }
 
     @Override
@@ -28,9 +28,16 @@ package cc.polyfrost.oneconfig.hud;
 
 import cc.polyfrost.oneconfig.config.annotations.Exclude;
 import cc.polyfrost.oneconfig.config.core.OneColor;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
+import cc.polyfrost.oneconfig.libs.universal.UResolution;
+import cc.polyfrost.oneconfig.platform.GLPlatform;
+import cc.polyfrost.oneconfig.platform.Platform;
 import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
+import org.jetbrains.annotations.ApiStatus;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class BasicHud extends Hud {
     protected boolean background;
@@ -44,6 +51,24 @@ public abstract class BasicHud extends Hud {
     protected float defaultPaddingY, paddingY;
     @Exclude
     private boolean loaded = false;
+    /**
+     * Extra space around the HUD that is captured by the retained render, for text shadows and borders.
+     */
+    private static final float RETAINED_MARGIN = 2f;
+    @Exclude
+    private transient GLPlatform.RenderTarget renderTarget;
+    @Exclude
+    private transient float retainedX, retainedY, retainedWidth, retainedHeight;
+    @Exclude
+    private transient double retainedScaleFactor;
+    /**
+     * Whether each HUD class draws its background the default way, see {@link #canBatchBackground()}.
+     */
+    private static final Map<Class<?>, Boolean> batchable = new ConcurrentHashMap<>();
+    @Exclude
+    private transient boolean backgroundBatched;
+    @Exclude
+    private transient boolean prepared;
 
     /**
      * @param enabled      If the hud is enabled
@@ -111,12 +136,73 @@ public abstract class BasicHud extends Hud {
 
     @Override
     public void drawAll(UMatrixStack matrices, boolean example) {
-        if (!example && !shouldShow()) return;
-        preRender(example);
-        position.setSize(getWidth(scale, example) + paddingX * scale * 2f, getHeight(scale, example) + paddingY * scale * 2f);
-        if (shouldDrawBackground() && background)
-            drawBackground(position.getX(), position.getY(), position.getWidth(), position.getHeight(), scale);
-        draw(matrices, position.getX() + paddingX * scale, position.getY() + paddingY * scale, scale, example);
+        boolean wasBatched = backgroundBatched && !example;
+        boolean wasPrepared = prepared && !example;
+        backgroundBatched = false;
+        prepared = false;
+        if (!wasBatched) {
+            if (!wasPrepared) {
+                if (!example && !shouldShow()) return;
+                preRender(example);
+                position.setSize(getWidth(scale, example) + paddingX * scale * 2f, getHeight(scale, example) + paddingY * scale * 2f);
+            }
+            if (shouldDrawBackground() && background)
+                drawBackground(position.getX(), position.getY(), position.getWidth(), position.getHeight(), scale);
+        }
+        if (example || !drawRetained(matrices)) {
+            draw(matrices, position.getX() + paddingX * scale, position.getY() + paddingY * scale, scale, example);
+        }
+    }
+
+    /**
+     * Draws the HUD from its render target, redrawing the render target first if anything changed.
+     *
+     * @return If the HUD was drawn, false if it has to be drawn immediately instead
+     */
+    private boolean drawRetained(UMatrixStack matrices) {
+        if (!Preferences.retainedHudRendering || !isRetainable()) {
+            releaseRetainedRender();
+            return false;
+        }
+        float margin = RETAINED_MARGIN * scale;
+        float x = position.getX() - margin;
+        float y = position.getY() - margin;
+        float width = position.getWidth() + margin * 2f;
+        float height = position.getHeight() + margin * 2f;
+        double scaleFactor = UResolution.getScaleFactor();
+        int pixelWidth = (int) Math.ceil(width * scaleFactor);
+        int pixelHeight = (int) Math.ceil(height * scaleFactor);
+        if (pixelWidth <= 0 || pixelHeight <= 0) return true;
+        if (renderTarget == null) {
+            renderTarget = Platform.getGLPlatform().createRenderTarget(pixelWidth, pixelHeight);
+            if (renderTarget == null) return false;
+            markDirty();
+        } else if (renderTarget.getWidth() != pixelWidth || renderTarget.getHeight() != pixelHeight) {
+            renderTarget.resize(pixelWidth, pixelHeight);
+            markDirty();
+        }
+        detectChanges();
+        if (isDirty() || x != retainedX || y != retainedY || width != retainedWidth || height != retainedHeight || scaleFactor != retainedScaleFactor) {
+            renderTarget.beginWrite(x, y, pixelWidth / (float) scaleFactor, pixelHeight / (float) scaleFactor);
+            draw(matrices, position.getX() + paddingX * scale, position.getY() + paddingY * scale, scale, false);
+            renderTarget.endWrite();
+            retainedX = x;
+            retainedY = y;
+            retainedWidth = width;
+            retainedHeight = height;
+            retainedScaleFactor = scaleFactor;
+            clearDirty();
+        }
+        renderTarget.draw(x, y, pixelWidth / (float) scaleFactor, pixelHeight / (float) scaleFactor);
+        return true;
+    }
+
+    @Override
+    public void releaseRetainedRender() {
+        if (renderTarget == null) return;
+        renderTarget.delete();
+        renderTarget = null;
+        markDirty();
     }
 
     @Override
@@ -146,17 +232,87 @@ public abstract class BasicHud extends Hud {
     }
 
     protected void drawBackground(float x, float y, float width, float height, float scale) {
+        NanoVGHelper.INSTANCE.setupAndDraw(true, (vg) -> drawBackgroundShapes(vg, x, y, width, height, scale));
+    }
+
+    private void drawBackgroundShapes(long vg, float x, float y, float width, float height, float scale) {
         NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
-        nanoVGHelper.setupAndDraw(true, (vg) -> {
-            if (rounded) {
-                nanoVGHelper.drawRoundedRect(vg, x, y, width, height, bgColor.getRGB(), cornerRadius * scale);
-                if (border)
-                    nanoVGHelper.drawHollowRoundRect(vg, x - borderSize * scale, y - borderSize * scale, width + borderSize * scale, height + borderSize * scale, borderColor.getRGB(), cornerRadius * scale, borderSize * scale);
-            } else {
-                nanoVGHelper.drawRect(vg, x, y, width, height, bgColor.getRGB());
-                if (border)
-                    nanoVGHelper.drawHollowRoundRect(vg, x - borderSize * scale, y - borderSize * scale, width + borderSize * scale, height + borderSize * scale, borderColor.getRGB(), 0, borderSize * scale);
+        if (rounded) {
+            nanoVGHelper.drawRoundedRect(vg, x, y, width, height, bgColor.getRGB(), cornerRadius * scale);
+            if (border)
+                nanoVGHelper.drawHollowRoundRect(vg, x - borderSize * scale, y - borderSize * scale, width + borderSize * scale, height + borderSize * scale, borderColor.getRGB(), cornerRadius * scale, borderSize * scale);
+        } else {
+            nanoVGHelper.drawRect(vg, x, y, width, height, bgColor.getRGB());
+            if (border)
+                nanoVGHelper.drawHollowRoundRect(vg, x - borderSize * scale, y - borderSize * scale, width + borderSize * scale, height + borderSize * scale, borderColor.getRGB(), 0, borderSize * scale);
+        }
+    }
+
+    /**
+     * @return If this HUD is shown and has a background to draw in the NanoVG frame the HUD render pass shares between all HUDs.
+     * HUDs that override {@link #drawAll} or {@link #drawBackground} set up their own frame, as they always have.
+     */
+    @ApiStatus.Internal
+    public boolean canBatchBackground() {
+        if (!background || !shouldDrawBackground() || !shouldShow()) return false;
+        return batchable.computeIfAbsent(getClass(), clazz -> {
+            for (Class<?> c = clazz; c != BasicHud.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("drawAll", UMatrixStack.class, boolean.class);
+                    return false;
+                } catch (NoSuchMethodException ignored) {
+                }
+                try {
+                    c.getDeclaredMethod("drawBackground", float.class, float.class, float.class, float.class, float.class);
+                    return false;
+                } catch (NoSuchMethodException ignored) {
+                }
             }
+            return true;
         });
     }
+
+    /**
+     * Prepares the HUD for this frame, so its size is known before anything is drawn. The following {@link #drawAll}
+     * call doesn't prepare it again. Only call this if {@link #canBatchBackground()} returned true this frame.
+     */
+    @ApiStatus.Internal
+    public void prepareBackground() {
+        preRender(false);
+        position.setSize(getWidth(scale, false) + paddingX * scale * 2f, getHeight(scale, false) + paddingY * scale * 2f);
+        prepared = true;
+    }
+
+    /**
+     * Draws the background of the HUD into the NanoVG frame shared by the HUD render pass. The following
+     * {@link #drawAll} call then only draws the contents of the HUD. Only call this after {@link #prepareBackground()}.
+     *
+     * @param vg The NanoVG context of the shared frame
+     */
+    @ApiStatus.Internal
+    public void drawBatchedBackground(long vg) {
+        drawBackgroundShapes(vg, position.getX(), position.getY(), position.getWidth(), position.getHeight(), scale);
+        backgroundBatched = true;
+    }
+
+    /**
+     * @param other Another HUD
+     * @return If anything this HUD draws may overlap what the other HUD draws, going by the size they had when they
+     * were last drawn or prepared
+     */
+    @ApiStatus.Internal
+    public boolean overlaps(Hud other) {
+        float margin = getDrawMargin() + (other instanceof BasicHud ? ((BasicHud) other).getDrawMargin() : RETAINED_MARGIN);
+        Position a = position;
+        Position b = other.position;
+        return a.getX() < b.getX() + b.getWidth() + margin && b.getX() < a.getX() + a.getWidth() + margin
+                && a.getY() < b.getY() + b.getHeight() + margin && b.getY() < a.getY() + a.getHeight() + margin;
+    }
+
+    /**
+     * @return How far the border and text shadows may reach outside the position of the HUD
+     */
+    private float getDrawMargin() {
+        return border ? RETAINED_MARGIN + borderSize * scale : RETAINED_MARGIN;
+    }
 }
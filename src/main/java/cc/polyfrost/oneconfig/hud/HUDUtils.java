@@ -118,6 +118,7 @@ public class HUDUtils {
                 options.get(options.size() - 1).addDependency("Background or Border", () -> ((BasicHud) hud).background || ((BasicHud) hud).border);
             }
             for (BasicOption option : options) {
+                option.addListener(config::markDirty);
                 if (option.name.equals("Enabled")) continue;
                 option.addDependency(hudAnnotation.name(), hud::isEnabled);
             }
@@ -84,6 +84,8 @@ public abstract class Hud {
     private boolean loaded = false;
     @Exclude
     private Position defaultPosition;
+    @Exclude
+    private transient boolean dirty = true;
 
     /**
      * @param enabled If the hud is enabled
@@ -197,6 +199,50 @@ public abstract class Hud {
         draw(matrices, position.getX(), position.getY(), scale, example);
     }
 
+    /**
+     * Whether this HUD can be drawn from a retained (cached) render when retained HUD rendering is enabled.
+     * A retained HUD is only redrawn when it is marked as dirty (see {@link #markDirty()}) or when its position or scale change.
+     * <p>
+     * HUDs that animate (e.g. use a chroma {@link cc.polyfrost.oneconfig.config.core.OneColor}) must return false here,
+     * they will then be drawn every frame as usual.
+     *
+     * @return If the HUD can be retained
+     */
+    protected boolean isRetainable() {
+        return false;
+    }
+
+    /**
+     * Called every frame before a retained HUD is drawn, to check for changes to anything that affects what is drawn.
+     * Implementations should call {@link #markDirty()} when they find one.
+     */
+    protected void detectChanges() {
+    }
+
+    /**
+     * Marks the HUD as changed, so that its retained render is redrawn on the next frame.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * @return If the HUD has changed since its retained render was last drawn
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    void clearDirty() {
+        dirty = false;
+    }
+
+    /**
+     * Frees the retained render of this HUD, if it has one.
+     */
+    public void releaseRetainedRender() {
+    }
+
     protected boolean shouldShow() {
         if (!showInGuis && Platform.getGuiPlatform().getCurrentScreen() != null && !(Platform.getGuiPlatform().getCurrentScreen() instanceof OneConfigGui))
             return false;
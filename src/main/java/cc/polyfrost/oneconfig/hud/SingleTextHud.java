@@ -28,6 +28,7 @@ package cc.polyfrost.oneconfig.hud;
 
 import cc.polyfrost.oneconfig.config.annotations.Color;
 import cc.polyfrost.oneconfig.config.annotations.Dropdown;
+import cc.polyfrost.oneconfig.config.annotations.Exclude;
 import cc.polyfrost.oneconfig.config.annotations.Switch;
 import cc.polyfrost.oneconfig.config.annotations.Text;
 import cc.polyfrost.oneconfig.config.core.OneColor;
@@ -129,11 +130,27 @@ public abstract class SingleTextHud extends TextHud {
         return builder.toString();
     }
 
+    @Override
+    protected boolean isRetainable() {
+        return super.isRetainable() && (!brackets || bracketsColor.getDataBit() == -1);
+    }
+
+    @Override
+    protected void detectChanges() {
+        super.detectChanges();
+        int rgb = bracketsColor.getRGB();
+        if (brackets != retainedBrackets || rgb != retainedBracketsColor) {
+            retainedBrackets = brackets;
+            retainedBracketsColor = rgb;
+            markDirty();
+        }
+    }
+
     @Override
     protected float getWidth(float scale, boolean example) {
         if (lines == null || lines.isEmpty()) return 0f;
         if (!brackets) return getLineWidth(lines.get(0), scale);
-        return getLineWidth("[" + lines.get(0) + "]", scale);
+        return getLineWidth("[", scale) + getLineWidth(lines.get(0), scale) + getLineWidth("]", scale);
     }
 
     @Switch(
@@ -156,4 +173,9 @@ public abstract class SingleTextHud extends TextHud {
         options = {"Left", "Right"}
     )
     protected int titleLocation = 0;
+
+    @Exclude
+    private transient boolean retainedBrackets;
+    @Exclude
+    private transient int retainedBracketsColor;
 }
@@ -28,6 +28,7 @@ package cc.polyfrost.oneconfig.hud;
 
 import cc.polyfrost.oneconfig.config.annotations.Color;
 import cc.polyfrost.oneconfig.config.annotations.Dropdown;
+import cc.polyfrost.oneconfig.config.annotations.Exclude;
 import cc.polyfrost.oneconfig.config.core.OneColor;
 import cc.polyfrost.oneconfig.events.EventManager;
 import cc.polyfrost.oneconfig.events.event.Stage;
@@ -35,11 +36,12 @@ import cc.polyfrost.oneconfig.events.event.TickEvent;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
-import cc.polyfrost.oneconfig.platform.Platform;
 import cc.polyfrost.oneconfig.renderer.TextRenderer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class TextHud extends BasicHud {
     protected transient List<String> lines = new ArrayList<>();
@@ -55,6 +57,17 @@ public abstract class TextHud extends BasicHud {
     )
     protected int textType = 0;
 
+    /**
+     * Whether each text HUD class measures its lines the default way, see {@link #measuresDefault()}.
+     */
+    private static final Map<Class<?>, Boolean> defaultLineWidth = new ConcurrentHashMap<>();
+    @Exclude
+    private transient List<String> retainedLines;
+    @Exclude
+    private transient int retainedColor;
+    @Exclude
+    private transient int retainedTextType;
+
     public TextHud(boolean enabled, float x, float y, float scale, boolean background, boolean rounded, float cornerRadius, float paddingX, float paddingY, OneColor bgColor, boolean border, float borderSize, OneColor borderColor) {
         super(enabled, x, y, scale, background, rounded, cornerRadius, paddingX, paddingY, bgColor, border, borderSize, borderColor);
         EventManager.INSTANCE.register(new TickHandler());
@@ -114,7 +127,7 @@ public abstract class TextHud extends BasicHud {
      * @return The width of the line (scaled accordingly)
      */
     protected float getLineWidth(String line, float scale) {
-        return Platform.getGLPlatform().getStringWidth(line) * scale;
+        return TextRenderer.getCachedStringWidth(line) * scale;
     }
 
     @Override
@@ -125,6 +138,7 @@ public abstract class TextHud extends BasicHud {
     @Override
     protected float getWidth(float scale, boolean example) {
         if (lines == null) return 0;
+        if (measuresDefault()) return TextRenderer.getMaxStringWidth(lines) * scale;
         float width = 0;
         for (String line : lines) {
             width = Math.max(width, getLineWidth(line, scale));
@@ -132,11 +146,53 @@ public abstract class TextHud extends BasicHud {
         return width;
     }
 
+    /**
+     * @return If this HUD class measures lines the default way, so all lines can be measured at once.
+     */
+    private boolean measuresDefault() {
+        return defaultLineWidth.computeIfAbsent(getClass(), clazz -> {
+            for (Class<?> c = clazz; c != TextHud.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("getLineWidth", String.class, float.class);
+                    return false;
+                } catch (NoSuchMethodException ignored) {
+                }
+            }
+            return true;
+        });
+    }
+
     @Override
     protected float getHeight(float scale, boolean example) {
         return lines == null ? 0 : (lines.size() * 12 - 4) * scale;
     }
 
+    /**
+     * Text HUDs can be retained unless they use a chroma color or obfuscated text.
+     * If you override {@link #drawLine(String, float, float, float)} with something that animates, override this too.
+     */
+    @Override
+    protected boolean isRetainable() {
+        if (color.getDataBit() != -1 || lines == null) return false;
+        for (String line : lines) {
+            if (line.contains("\u00A7k") || line.contains("\u00A7K")) return false;
+        }
+        return true;
+    }
+
+    @Override
+    protected void detectChanges() {
+        if (retainedLines == null) retainedLines = new ArrayList<>();
+        int rgb = color.getRGB();
+        if (rgb != retainedColor || textType != retainedTextType || !retainedLines.equals(lines)) {
+            retainedColor = rgb;
+            retainedTextType = textType;
+            retainedLines.clear();
+            if (lines != null) retainedLines.addAll(lines);
+            markDirty();
+        }
+    }
+
     @Override
     public boolean shouldDrawBackground() {
         return super.shouldDrawBackground() && lines != null && lines.size() > 0;
@@ -26,15 +26,23 @@
 
 package cc.polyfrost.oneconfig.internal.command;
 
+import cc.polyfrost.oneconfig.events.EventManager;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.internal.config.profiles.Profiles;
 import cc.polyfrost.oneconfig.internal.gui.HudGui;
+import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.libs.universal.ChatColor;
 import cc.polyfrost.oneconfig.libs.universal.UChat;
+import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
+import cc.polyfrost.oneconfig.renderer.asset.AssetHelper;
+import cc.polyfrost.oneconfig.renderer.font.FontHelper;
 import cc.polyfrost.oneconfig.utils.commands.annotations.*;
 import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 
+import java.util.Map;
+
 /**
  * The main OneConfig command.
  */
@@ -56,6 +64,68 @@ public class OneConfigCommand {
         OneConfigGui.INSTANCE = null;
     }
 
+    @SubCommand(description = "Toggles event metrics, printing what was collected when turning them off.", aliases = {"events"})
+    private void eventMetrics() {
+        EventManager manager = EventManager.INSTANCE;
+        if (!manager.isMetricsEnabled()) {
+            manager.resetMetrics();
+            manager.setMetricsEnabled(true);
+            UChat.chat(ChatColor.GREEN + "Started collecting event metrics.");
+            return;
+        }
+        manager.setMetricsEnabled(false);
+        StringBuilder builder = new StringBuilder()
+                .append(ChatColor.GOLD).append("Event metrics (posts / listeners / total ms):");
+        manager.getMetrics().entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()))
+                .forEach(entry -> builder.append("\n").append(ChatColor.YELLOW).append(entry.getKey().getSimpleName()).append(ChatColor.WHITE)
+                        .append(": ").append(entry.getValue().getPostCount())
+                        .append(" / ").append(entry.getValue().getListenerCount())
+                        .append(" / ").append(entry.getValue().getTotalNanos() / 1000000f));
+        UChat.chat(builder.toString());
+    }
+
+    @SubCommand(description = "Shows how much video memory loaded images and SVGs use.", aliases = {"vram"})
+    private void textures() {
+        AssetHelper assetHelper = AssetHelper.INSTANCE;
+        Map<String, Long> usage = assetHelper.getTextureMemoryUsageByAsset();
+        StringBuilder builder = new StringBuilder()
+                .append(ChatColor.GOLD).append("Texture memory: ").append(assetHelper.getTextureMemoryUsage() / 1024).append(" KB / ")
+                .append(Preferences.textureMemoryBudget * 1024).append(" KB in ").append(usage.size()).append(" textures (largest first):");
+        usage.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .limit(10)
+                .forEach(entry -> builder.append("\n").append(ChatColor.YELLOW).append(entry.getKey()).append(ChatColor.WHITE)
+                        .append(": ").append(entry.getValue() / 1024).append(" KB"));
+        UChat.chat(builder.toString());
+    }
+
+    @SubCommand(description = "Shows the estimated NanoVG glyph atlas usage, collected in debug mode.", aliases = {"glyphs"})
+    private void fontStats() {
+        if (!Preferences.DEBUG) {
+            UChat.chat(ChatColor.RED + "Glyph statistics are only collected in debug mode.");
+            return;
+        }
+        FontHelper fontHelper = FontHelper.INSTANCE;
+        UChat.chat(ChatColor.GOLD + "Glyph atlas: " + ChatColor.WHITE + fontHelper.getCachedGlyphs() + " glyphs, about "
+                + fontHelper.getEstimatedAtlasPixels() / 1024 + "K pixels, " + fontHelper.getLastFrameGlyphMisses() + " rasterized last frame.");
+    }
+
+    @SubCommand(description = "Shows how many NanoVG frames the last game frame set up, and how many HUD backgrounds shared one.")
+    private void hudStats() {
+        UChat.chat(ChatColor.GOLD + "Last frame: " + ChatColor.WHITE + NanoVGHelper.INSTANCE.getLastFrameSetups()
+                + " NanoVG frames set up, each saving and restoring the GL state. " + HudCore.getLastPassBatched() + " of "
+                + HudCore.getLastPassHuds() + " HUDs drew their background in the shared HUD frame.");
+    }
+
+    @SubCommand(description = "Shows how many colors and paints NanoVG allocated and reused during the last game frame.", aliases = {"nanovg"})
+    private void nvgStats() {
+        NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
+        UChat.chat(ChatColor.GOLD + "Last frame: " + ChatColor.WHITE + nanoVGHelper.getLastFrameAllocations()
+                + " colors/paints allocated, " + nanoVGHelper.getLastFrameScratchUses() + " reused from the scratch pool in "
+                + nanoVGHelper.getLastFrameSetups() + " NanoVG frames.");
+    }
+
     @SubCommandGroup(value = "Profile", aliases = {"profiles"})
     private static class Profile {
         @SubCommand(description = "View all profiles", aliases = {"view"})
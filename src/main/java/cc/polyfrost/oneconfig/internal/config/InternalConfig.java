@@ -29,16 +29,11 @@ package cc.polyfrost.oneconfig.internal.config;
 import cc.polyfrost.oneconfig.config.Config;
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.gson.exclusion.ProfileExclusionStrategy;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
 import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -57,31 +52,24 @@ public abstract class InternalConfig extends Config {
 
     @Override
     public void initialize() {
-        if (new File("OneConfig/" + configFile).exists()) load();
+        // a missing file is restored from its backup by load()
+        if (new File("OneConfig/" + configFile).exists() || new File("OneConfig/" + configFile + ".bak").exists()) load();
         else save();
         generateOptionList(this, mod.defaultPage, mod, false);
         mod.config = this;
+        ConfigCore.addInternalConfig(this);
     }
 
     @Override
-    public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(Paths.get("OneConfig/" + configFile)), StandardCharsets.UTF_8))) {
-            writer.write(gson.toJson(this));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+    public synchronized void save() {
+        clearDirty();
+        writeFile(Paths.get("OneConfig/" + configFile), gson.toJson(this));
     }
 
     @Override
     public void load() {
         Path path = Paths.get("OneConfig/" + configFile);
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
-            gson.fromJson(reader, this.getClass());
-        } catch (Exception e) {
-            e.printStackTrace();
-            File file = path.toFile();
-            file.renameTo(new File(file.getParentFile(), file.getName() + ".corrupted"));
-        }
+        loadFile(path, ConfigCore.readFile(path), gson);
     }
 
     private static final class InternalConfigExclusionStrategy extends ProfileExclusionStrategy {
@@ -27,6 +27,7 @@
 package cc.polyfrost.oneconfig.internal.config;
 
 import cc.polyfrost.oneconfig.config.core.OneColor;
+import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -50,6 +51,7 @@ public class OneConfigConfig extends InternalConfig {
         super("", "OneConfig.json");
         initialize();
         INSTANCE = this;
+        ConfigCore.prefetchConfigs();
     }
 
     public static OneConfigConfig getInstance() {
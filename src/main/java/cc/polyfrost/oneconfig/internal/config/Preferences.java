@@ -35,7 +35,9 @@ import cc.polyfrost.oneconfig.config.annotations.Slider;
 import cc.polyfrost.oneconfig.config.annotations.Switch;
 import cc.polyfrost.oneconfig.config.core.OneKeyBind;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.hud.Hud;
 import cc.polyfrost.oneconfig.internal.gui.BlurHandler;
+import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.libs.universal.UKeyboard;
 import cc.polyfrost.oneconfig.platform.Platform;
 import cc.polyfrost.oneconfig.utils.TickDelay;
@@ -115,6 +117,34 @@ public class Preferences extends InternalConfig {
     )
     public static int searchDistance = 2;
 
+    @Switch(
+            name = "Cache HUD Rendering",
+            category = "Behavior",
+            subcategory = "HUD",
+            description = "Draws text HUDs into a texture and only redraws them when they change. Can greatly improve performance with many HUDs",
+            size = 2
+    )
+    public static boolean retainedHudRendering = false;
+
+    @Slider(
+            name = "Texture Memory Budget",
+            category = "Behavior",
+            subcategory = "Rendering",
+            description = "How much video memory (in MB) images and icons may use before the least recently drawn ones are unloaded",
+            min = 32,
+            max = 1024,
+            step = 32
+    )
+    public static int textureMemoryBudget = 256;
+
+    @Switch(
+            name = "Prewarm Fonts",
+            category = "Behavior",
+            subcategory = "Rendering",
+            description = "Prepares the characters used by the OneConfig GUI in the first frames after the game starts, so opening it for the first time doesn't stutter"
+    )
+    public static boolean prewarmFonts = true;
+
     @Switch(
             name = "Opening Animation",
             description = "Plays an animation when opening the GUI",
@@ -238,6 +268,10 @@ public class Preferences extends InternalConfig {
                 OneConfigGui.INSTANCE.isClosed = true;
             }
         });
+        addListener("retainedHudRendering", () -> {
+            if (retainedHudRendering) return;
+            for (Hud hud : HudCore.huds.values()) hud.releaseRetainedRender();
+        });
         addDependency("guiClosingAnimation", "guiOpenAnimation");
         addDependency("timeUntilReset", "Smart Opening Behavior", () -> openingBehavior == 3);
         addDependency("pageAnimationDuration", "showPageAnimations");
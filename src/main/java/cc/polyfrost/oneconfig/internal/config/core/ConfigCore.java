@@ -26,35 +26,133 @@
 
 package cc.polyfrost.oneconfig.internal.config.core;
 
+import cc.polyfrost.oneconfig.config.Config;
 import cc.polyfrost.oneconfig.config.data.Mod;
 import cc.polyfrost.oneconfig.config.data.ModType;
 import cc.polyfrost.oneconfig.internal.config.OneConfigConfig;
 import cc.polyfrost.oneconfig.internal.config.SubMainConfig;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
+import cc.polyfrost.oneconfig.internal.config.profiles.Profiles;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 public class ConfigCore {
     public static List<Mod> mods = new ArrayList<>();
     public static HashMap<Mod, List<Mod>> subMods = new HashMap<>();
+    /**
+     * How long after the last change a dirty config is written to disk.
+     */
+    private static final long SAVE_DELAY = 2000L;
+    /**
+     * Upper bound on how long a stream of changes (e.g. dragging a slider) can postpone a save.
+     */
+    private static final long MAX_SAVE_DELAY = 10000L;
+    /**
+     * How often every config is written regardless of its dirty flag, for mods that change fields without marking their config dirty.
+     */
+    private static final long SAFETY_SAVE_INTERVAL = 5L;
+    /**
+     * OneConfig's own configs, which are not in {@link #mods} but are saved with them.
+     */
+    private static final List<Config> internalConfigs = new CopyOnWriteArrayList<>();
+    private static final ScheduledExecutorService saveExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("OneConfig Config Saver").setDaemon(true).build());
+    private static ScheduledFuture<?> pendingSave;
+    private static long pendingSince;
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Config");
+    private static final ExecutorService ioExecutor = Executors.newFixedThreadPool(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), new ThreadFactoryBuilder().setNameFormat("OneConfig Config IO-%d").setDaemon(true).build());
+    private static final Map<Path, CompletableFuture<JsonElement>> prefetchedFiles = new ConcurrentHashMap<>();
+    private static final List<InitTiming> initTimings = new ArrayList<>();
+    private static boolean initialized;
 
+    static {
+        saveExecutor.scheduleWithFixedDelay(ConfigCore::saveAll, SAFETY_SAVE_INTERVAL, SAFETY_SAVE_INTERVAL, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Register one of OneConfig's own configs, so it is saved along with the mod configs.
+     */
+    public static void addInternalConfig(Config config) {
+        if (!internalConfigs.contains(config)) internalConfigs.add(config);
+    }
+
+    /**
+     * Write every config to disk, whether it has changed or not.
+     */
     public static void saveAll() {
-        for (Mod modData : mods) {
+        cancelPendingSave();
+        for (Mod modData : new ArrayList<>(mods)) {
             modData.config.save();
         }
+        for (Config config : internalConfigs) {
+            config.save();
+        }
+    }
+
+    /**
+     * Write only the configs that have been marked dirty since their last save.
+     */
+    public static void saveDirty() {
+        for (Mod modData : new ArrayList<>(mods)) {
+            if (modData.config.isDirty()) modData.config.save();
+        }
+        for (Config config : internalConfigs) {
+            if (config.isDirty()) config.save();
+        }
+    }
+
+    /**
+     * Schedule a debounced {@link #saveDirty()} on the background saver thread.
+     * Repeated calls push the save back by {@link #SAVE_DELAY}, but never past {@link #MAX_SAVE_DELAY} after the first one.
+     */
+    public static synchronized void scheduleSave() {
+        long now = System.currentTimeMillis();
+        if (pendingSave != null && !pendingSave.isDone()) {
+            if (now - pendingSince >= MAX_SAVE_DELAY) return;
+            pendingSave.cancel(false);
+        } else {
+            pendingSince = now;
+        }
+        pendingSave = saveExecutor.schedule(ConfigCore::saveDirty, SAVE_DELAY, TimeUnit.MILLISECONDS);
+    }
+
+    private static synchronized void cancelPendingSave() {
+        if (pendingSave != null) pendingSave.cancel(false);
+        pendingSave = null;
     }
 
     public static void reInitAll() {
+        prefetchDirectory(Profiles.getProfileDir(OneConfigConfig.currentProfile));
         for (Mod modData : mods) {
             if (!modData.config.supportsProfiles()) continue;
             modData.config.reInitialize();
         }
+        prefetchedFiles.clear();
         HudCore.reInitHuds();
         KeyBindHandler.INSTANCE.reInitKeyBinds();
     }
@@ -78,13 +176,107 @@ public class ConfigCore {
         return null;
     }
 
-    static {
-        Executors.newSingleThreadScheduledExecutor()
-                .scheduleAtFixedRate(
-                        ConfigCore::saveAll,
-                        0,
-                        30,
-                        TimeUnit.SECONDS
-                );
+    /**
+     * Start reading and parsing every config file of the current profile on the IO pool,
+     * so the files of mods that initialize later are already parsed by the time they ask for them.
+     */
+    public static void prefetchConfigs() {
+        prefetchDirectory(Profiles.getProfileDir(OneConfigConfig.currentProfile));
+        prefetchDirectory(Profiles.nonProfileSpecificDir);
+    }
+
+    private static void prefetchDirectory(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) return;
+        for (File file : files) {
+            Path path = normalize(file.toPath());
+            prefetchedFiles.computeIfAbsent(path, p -> CompletableFuture.supplyAsync(() -> parseFile(p), ioExecutor));
+        }
+    }
+
+    /**
+     * Read and parse a config file on the IO pool, reusing a prefetched result if there is one.
+     * The future completes with null if the file does not exist, and exceptionally if it could not be read or parsed.
+     *
+     * @param path The config file
+     * @return The parsed contents of the file
+     */
+    public static CompletableFuture<JsonElement> readFile(Path path) {
+        Path normalized = normalize(path);
+        CompletableFuture<JsonElement> prefetched = prefetchedFiles.remove(normalized);
+        if (prefetched != null) return prefetched;
+        return CompletableFuture.supplyAsync(() -> parseFile(normalized), ioExecutor);
+    }
+
+    /**
+     * Drop a prefetched result for a file, as it is about to be overwritten.
+     *
+     * @param path The config file
+     */
+    public static void invalidateFile(Path path) {
+        prefetchedFiles.remove(normalize(path));
+    }
+
+    private static JsonElement parseFile(Path path) {
+        if (!Files.exists(path)) return null;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8))) {
+            return new JsonParser().parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Record how long a config took to initialize, reported once startup has finished.
+     *
+     * @param mod         The mod the config belongs to
+     * @param loadNanos   Time spent waiting for and applying the config files
+     * @param optionNanos Time spent generating the option list
+     */
+    public static void recordInitTiming(Mod mod, long loadNanos, long optionNanos) {
+        if (initialized) return;
+        synchronized (initTimings) {
+            initTimings.add(new InitTiming(mod.name, loadNanos, optionNanos));
+        }
+    }
+
+    /**
+     * Log the per-mod startup timings and drop any prefetched files that no mod asked for.
+     */
+    public static void finishInitialization() {
+        if (initialized) return;
+        initialized = true;
+        prefetchedFiles.clear();
+        synchronized (initTimings) {
+            long load = 0;
+            long options = 0;
+            for (InitTiming timing : initTimings) {
+                load += timing.loadNanos;
+                options += timing.optionNanos;
+                LOGGER.debug("Initialized config for {} in {}ms (files {}ms, options {}ms)", timing.mod, toMillis(timing.loadNanos + timing.optionNanos), toMillis(timing.loadNanos), toMillis(timing.optionNanos));
+            }
+            LOGGER.info("Initialized {} configs in {}ms (files {}ms, options {}ms)", initTimings.size(), toMillis(load + options), toMillis(load), toMillis(options));
+            initTimings.clear();
+        }
+    }
+
+    private static String toMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private static class InitTiming {
+        private final String mod;
+        private final long loadNanos;
+        private final long optionNanos;
+
+        private InitTiming(String mod, long loadNanos, long optionNanos) {
+            this.mod = mod;
+            this.loadNanos = loadNanos;
+            this.optionNanos = optionNanos;
+        }
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.config.core;
+
+import cc.polyfrost.oneconfig.config.annotations.Button;
+import cc.polyfrost.oneconfig.config.annotations.CustomOption;
+import cc.polyfrost.oneconfig.config.annotations.HUD;
+import cc.polyfrost.oneconfig.config.annotations.Page;
+import cc.polyfrost.oneconfig.config.annotations.SubConfig;
+import cc.polyfrost.oneconfig.config.core.ConfigUtils;
+import cc.polyfrost.oneconfig.internal.config.annotations.Option;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflection data of a class used by the config system, resolved once per class and shared by every
+ * instance, HUD re-init and profile switch after that.
+ */
+public final class ConfigMetadata {
+    private static final ClassValue<ConfigMetadata> CACHE = new ClassValue<ConfigMetadata>() {
+        @Override
+        protected ConfigMetadata computeValue(Class<?> type) {
+            return new ConfigMetadata(type);
+        }
+    };
+
+    /**
+     * Fields declared by this class itself, in declaration order.
+     */
+    public final List<FieldData> declaredFields;
+    /**
+     * Fields of this class followed by those of its superclasses, the same order as {@link ConfigUtils#getClassFields(Class)}.
+     */
+    public final List<FieldData> allFields;
+    /**
+     * Methods declared by this class itself that are annotated with {@link Button}.
+     */
+    public final List<MethodData> buttonMethods;
+    private final Map<Field, FieldData> byField = new HashMap<>();
+
+    private ConfigMetadata(Class<?> type) {
+        List<FieldData> declared = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            FieldData data = new FieldData(field);
+            declared.add(data);
+            byField.put(field, data);
+        }
+        declaredFields = Collections.unmodifiableList(declared);
+
+        List<FieldData> all = new ArrayList<>(declared);
+        Class<?> superclass = type.getSuperclass();
+        if (superclass != null) all.addAll(get(superclass).allFields);
+        allFields = Collections.unmodifiableList(all);
+
+        List<MethodData> buttons = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            Button button = ConfigUtils.findAnnotation(method, Button.class);
+            if (button != null) buttons.add(new MethodData(method, button));
+        }
+        buttonMethods = Collections.unmodifiableList(buttons);
+    }
+
+    /**
+     * @param type The class to look up
+     * @return The cached metadata of the class
+     */
+    public static ConfigMetadata get(Class<?> type) {
+        return CACHE.get(type);
+    }
+
+    /**
+     * @param field The field to look up
+     * @return The cached metadata of the field
+     */
+    public static FieldData get(Field field) {
+        return get(field.getDeclaringClass()).byField.get(field);
+    }
+
+    public static final class FieldData {
+        public final Field field;
+        @Nullable
+        public final Option option;
+        @Nullable
+        public final CustomOption customOption;
+        @Nullable
+        public final Page page;
+        public final boolean hud;
+        public final boolean subConfig;
+        private volatile MethodHandle getter;
+        private volatile MethodHandle setter;
+
+        private FieldData(Field field) {
+            makeAccessible(field);
+            this.field = field;
+            this.option = ConfigUtils.findAnnotation(field, Option.class);
+            this.customOption = ConfigUtils.findAnnotation(field, CustomOption.class);
+            this.page = field.getAnnotation(Page.class);
+            this.hud = field.isAnnotationPresent(HUD.class);
+            this.subConfig = field.isAnnotationPresent(SubConfig.class);
+        }
+
+        /**
+         * @return A getter for the field, taking the instance for non-static fields
+         */
+        public MethodHandle getter() throws IllegalAccessException {
+            MethodHandle handle = getter;
+            if (handle == null) getter = handle = MethodHandles.lookup().unreflectGetter(field);
+            return handle;
+        }
+
+        /**
+         * @return A setter for the field, taking the instance for non-static fields, or null if the field is final
+         */
+        @Nullable
+        public MethodHandle setter() {
+            MethodHandle handle = setter;
+            if (handle == null) {
+                try {
+                    setter = handle = MethodHandles.lookup().unreflectSetter(field);
+                } catch (IllegalAccessException ignored) {
+                }
+            }
+            return handle;
+        }
+    }
+
+    public static final class MethodData {
+        public final Method method;
+        public final Button button;
+
+        private MethodData(Method method, Button button) {
+            makeAccessible(method);
+            this.method = method;
+            this.button = button;
+        }
+    }
+
+    private static void makeAccessible(AccessibleObject object) {
+        try {
+            object.setAccessible(true);
+        } catch (RuntimeException ignored) {
+        }
+    }
+}
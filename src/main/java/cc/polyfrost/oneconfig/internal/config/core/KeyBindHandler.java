@@ -28,19 +28,89 @@ package cc.polyfrost.oneconfig.internal.config.core;
 
 import cc.polyfrost.oneconfig.config.core.OneKeyBind;
 import cc.polyfrost.oneconfig.events.event.KeyInputEvent;
+import cc.polyfrost.oneconfig.events.event.RawKeyEvent;
+import cc.polyfrost.oneconfig.events.event.RawMouseEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
+import cc.polyfrost.oneconfig.events.event.TickEvent;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+import cc.polyfrost.oneconfig.libs.universal.UKeyboard;
+import cc.polyfrost.oneconfig.platform.Platform;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Runs keybinds when their keys are pressed. Keybinds are indexed by their keys, so a key press only checks the
+ * keybinds containing that key, and which keys are held is tracked from key and mouse events in a bitset.
+ * The index is checked against the keys of every keybind before it is used, so keybinds can be changed in any way.
+ */
 public class KeyBindHandler {
     public static final KeyBindHandler INSTANCE = new KeyBindHandler();
+    /**
+     * Keys are stored as in {@link OneKeyBind}: keyboard keys as their key code, mouse buttons as button - 100.
+     * Shifting them by this gives every key a slot from 0.
+     */
+    private static final int KEY_OFFSET = 128;
+    private static final int KEY_SLOTS = 1024;
+    private static final int NO_KEY = Integer.MIN_VALUE;
+    private static final boolean MODERN_KEYS = Platform.getInstance().getMinecraftVersion() >= 11300;
     private final ConcurrentHashMap<Map.Entry<Field, Object>, OneKeyBind> keyBinds = new ConcurrentHashMap<>();
+    private final long[] down = new long[KEY_SLOTS / 64];
+    private final Indexed[][] byKey = new Indexed[KEY_SLOTS][];
+    /**
+     * Keybinds with keys that have no slot, these are checked on every key press as before.
+     */
+    private final List<OneKeyBind> unindexed = new ArrayList<>();
+    /**
+     * Every keybind with the keys it was indexed with.
+     */
+    private final List<Indexed> indexedKeyBinds = new ArrayList<>();
+    private volatile boolean dirty = true;
+    private int lastKey = NO_KEY;
+    /**
+     * If the window was not focused since the held keys were last polled.
+     */
+    private boolean unfocused = true;
+
+    @Subscribe
+    private void onTick(TickEvent event) {
+        if (event.stage == Stage.START && !Platform.getGuiPlatform().isWindowFocused()) unfocused = true;
+    }
+
+    @Subscribe
+    private void onRawKey(RawKeyEvent event) {
+        if (unfocused) pollKeys();
+        setDown(event.key, event.state != 0);
+        lastKey = event.key;
+    }
+
+    @Subscribe
+    private void onRawMouse(RawMouseEvent event) {
+        if (unfocused) pollKeys();
+        if (event.button >= 0) setDown(event.button - 100, event.state != 0);
+    }
 
     @Subscribe
     private void onKeyPressed(KeyInputEvent event) {
-        for (OneKeyBind keyBind : keyBinds.values()) {
+        if (dirty || keysChanged()) index();
+        if (unfocused) pollKeys();
+        int slot = slot(lastKey);
+        lastKey = NO_KEY;
+        if (slot != -1 && byKey[slot] != null) {
+            for (Indexed indexed : byKey[slot]) {
+                // the bitset can miss a release while the game is not focused, so a match is confirmed by polling
+                if (isDown(indexed.slots) && indexed.keyBind.isActive()) {
+                    indexed.keyBind.run();
+                } else {
+                    indexed.keyBind.release();
+                }
+            }
+        }
+        for (OneKeyBind keyBind : unindexed) {
             if (keyBind.isActive()) {
                 keyBind.run();
             }
@@ -65,6 +135,7 @@ public class KeyBindHandler {
                 return null;
             }
         }, keyBind);
+        invalidate();
     }
 
     public void reInitKeyBinds() {
@@ -75,9 +146,123 @@ public class KeyBindHandler {
             } catch (IllegalAccessException ignored) {
             }
         }
+        invalidate();
     }
 
     public void clearKeyBinds() {
         keyBinds.clear();
+        invalidate();
+    }
+
+    private void invalidate() {
+        dirty = true;
+    }
+
+    /**
+     * @return If the keys of a keybind changed since it was indexed, by {@link OneKeyBind#addKey(int)} or through
+     * {@link OneKeyBind#getKeyBinds()} for example
+     */
+    private boolean keysChanged() {
+        for (Indexed indexed : indexedKeyBinds) {
+            List<Integer> keys = indexed.keyBind.getKeyBinds();
+            if (keys.size() != indexed.keys.length) return true;
+            for (int i = 0; i < indexed.keys.length; i++) {
+                if (keys.get(i) != indexed.keys[i]) return true;
+            }
+        }
+        return false;
+    }
+
+    private void index() {
+        dirty = false;
+        Arrays.fill(byKey, null);
+        unindexed.clear();
+        indexedKeyBinds.clear();
+        for (OneKeyBind keyBind : keyBinds.values()) {
+            List<Integer> keyList = keyBind.getKeyBinds();
+            int[] keys = new int[keyList.size()];
+            int[] slots = new int[keys.length];
+            boolean indexable = true;
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = keyList.get(i);
+                slots[i] = slot(keys[i]);
+                if (slots[i] == -1) indexable = false;
+            }
+            Indexed indexed = new Indexed(keyBind, keys, slots);
+            indexedKeyBinds.add(indexed);
+            if (keys.length == 0) continue;
+            if (!indexable) {
+                unindexed.add(keyBind);
+                continue;
+            }
+            for (int i = 0; i < slots.length; i++) {
+                if (indexOf(slots, slots[i]) != i) continue;
+                Indexed[] bucket = byKey[slots[i]];
+                if (bucket == null) {
+                    bucket = new Indexed[1];
+                } else {
+                    bucket = Arrays.copyOf(bucket, bucket.length + 1);
+                }
+                bucket[bucket.length - 1] = indexed;
+                byKey[slots[i]] = bucket;
+            }
+        }
+    }
+
+    /**
+     * Key events are missed while the window is not focused, so the keys of every keybind are polled again
+     * once it is, and keybinds whose keys were released in the meantime can run again.
+     */
+    private void pollKeys() {
+        unfocused = false;
+        if (dirty || keysChanged()) index();
+        Arrays.fill(down, 0L);
+        for (Indexed indexed : indexedKeyBinds) {
+            boolean active = indexed.keys.length != 0;
+            for (int key : indexed.keys) {
+                boolean pressed = UKeyboard.isKeyDown(MODERN_KEYS && key < 0 ? key + 100 : key);
+                setDown(key, pressed);
+                if (!pressed) active = false;
+            }
+            if (!active) indexed.keyBind.release();
+        }
+    }
+
+    private void setDown(int key, boolean pressed) {
+        int slot = slot(key);
+        if (slot == -1) return;
+        if (pressed) down[slot >>> 6] |= 1L << slot;
+        else down[slot >>> 6] &= ~(1L << slot);
+    }
+
+    private boolean isDown(int[] slots) {
+        for (int slot : slots) {
+            if ((down[slot >>> 6] & 1L << slot) == 0) return false;
+        }
+        return true;
+    }
+
+    private static int slot(int key) {
+        int slot = key + KEY_OFFSET;
+        return key == NO_KEY || slot < 0 || slot >= KEY_SLOTS ? -1 : slot;
+    }
+
+    private static int indexOf(int[] array, int value) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == value) return i;
+        }
+        return -1;
+    }
+
+    private static class Indexed {
+        private final OneKeyBind keyBind;
+        private final int[] keys;
+        private final int[] slots;
+
+        private Indexed(OneKeyBind keyBind, int[] keys, int[] slots) {
+            this.keyBind = keyBind;
+            this.keys = keys;
+            this.slots = slots;
+        }
     }
 }
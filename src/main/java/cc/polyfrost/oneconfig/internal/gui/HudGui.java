@@ -33,7 +33,7 @@ import cc.polyfrost.oneconfig.hud.Position;
 import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
 import cc.polyfrost.oneconfig.internal.hud.utils.GrabOffset;
-import cc.polyfrost.oneconfig.internal.hud.utils.SnappingLine;
+import cc.polyfrost.oneconfig.internal.hud.utils.HudSpatialIndex;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
 import cc.polyfrost.oneconfig.libs.universal.UKeyboard;
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
@@ -51,13 +51,15 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class HudGui extends UScreen implements GuiPause {
-    private static final int SNAPPING_DISTANCE = 10;
     private final HashMap<Hud, GrabOffset> editingHuds = new HashMap<>();
+    private final HudSpatialIndex index = new HudSpatialIndex(editingHuds);
+    private final List<Hud> selected = new ArrayList<>();
     private boolean isDragging;
     private boolean isSelecting;
     private float selectX;
@@ -80,46 +82,53 @@ public class HudGui extends UScreen implements GuiPause {
         final NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
 
         int lineWidth = Math.max(1, Math.round(Math.min(UResolution.getWindowWidth() / 1920f, UResolution.getWindowHeight() / 1080f)));
+        index.update(HudCore.huds.values());
         if (isDragging) {
-            nanoVGHelper.setupAndDraw(vg -> setHudPositions(vg, mouseX, mouseY, true, true, lineWidth));
+            setHudPositions(mouseX, mouseY, true, true);
         } else if (isSelecting) {
             getHudsInRegion(selectX, selectY, mouseX, mouseY);
         } else if (isScaling && editingHuds.size() == 1) {
-            nanoVGHelper.setupAndDraw(vg -> {
-                Hud hud = (Hud) editingHuds.keySet().toArray()[0];
-                Position position = hud.position;
-                float scaleX = getXSnapping(vg, lineWidth, mouseX, position.getWidth(), false);
-                hud.setScale(MathUtils.clamp((scaleX - position.getX()) / (position.getWidth() / hud.getScale()), 0.3f, 10f), true);
-            });
+            Hud hud = (Hud) editingHuds.keySet().toArray()[0];
+            Position position = hud.position;
+            float scaleX = index.snapX(mouseX, position.getWidth(), false);
+            hud.setScale(MathUtils.clamp((scaleX - position.getX()) / (position.getWidth() / hud.getScale()), 0.3f, 10f), true);
         }
 
-        float scaleFactor = (float) UResolution.getScaleFactor();
         for (Hud hud : HudCore.huds.values()) {
             if (!hud.isEnabled()) continue;
-            Position position = hud.position;
             UGraphics.enableAlpha();
             UGraphics.enableBlend();
             hud.drawAll(matrixStack, true);
-            if (editingHuds.containsKey(hud)) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getX(), position.getY(), position.getWidth(), position.getHeight(), ColorUtils.getColor(0, 128, 128, 60)));
-            }
-            if (hud.isLocked()) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getX(), position.getY(), position.getWidth(), position.getHeight(), ColorUtils.getColor(238, 36, 36, 60)));
-            }
-            nanoVGHelper.setupAndDraw(vg -> {
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getX() * scaleFactor - lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getX() * scaleFactor - lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-                nanoVGHelper.drawLine(vg, position.getRightX() * scaleFactor + lineWidth / 2f, position.getY() * scaleFactor - lineWidth / 2f, position.getRightX() * scaleFactor + lineWidth / 2f, position.getBottomY() * scaleFactor + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
-            });
-            if (editingHuds.containsKey(hud) && editingHuds.size() == 1) {
-                nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, position.getRightX() - 4, position.getBottomY() - 4, 8, 8, ColorUtils.getColor(0, 128, 128, 200)));
-            }
         }
 
-        if (isSelecting) {
-            nanoVGHelper.setupAndDraw(true, vg -> nanoVGHelper.drawRect(vg, selectX, selectY, mouseX - selectX, mouseY - selectY, ColorUtils.getColor(0, 0, 255, 100)));
-        }
+        float scaleFactor = (float) UResolution.getScaleFactor();
+        nanoVGHelper.setupAndDraw(vg -> {
+            for (Hud hud : HudCore.huds.values()) {
+                if (!hud.isEnabled()) continue;
+                Position position = hud.position;
+                float x = position.getX() * scaleFactor;
+                float y = position.getY() * scaleFactor;
+                float rightX = position.getRightX() * scaleFactor;
+                float bottomY = position.getBottomY() * scaleFactor;
+                if (editingHuds.containsKey(hud)) {
+                    nanoVGHelper.drawRect(vg, x, y, rightX - x, bottomY - y, ColorUtils.getColor(0, 128, 128, 60));
+                }
+                if (hud.isLocked()) {
+                    nanoVGHelper.drawRect(vg, x, y, rightX - x, bottomY - y, ColorUtils.getColor(238, 36, 36, 60));
+                }
+                nanoVGHelper.drawLine(vg, x - lineWidth / 2f, y - lineWidth / 2f, rightX + lineWidth / 2f, y - lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
+                nanoVGHelper.drawLine(vg, x - lineWidth / 2f, bottomY + lineWidth / 2f, rightX + lineWidth / 2f, bottomY + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
+                nanoVGHelper.drawLine(vg, x - lineWidth / 2f, y - lineWidth / 2f, x - lineWidth / 2f, bottomY + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
+                nanoVGHelper.drawLine(vg, rightX + lineWidth / 2f, y - lineWidth / 2f, rightX + lineWidth / 2f, bottomY + lineWidth / 2f, lineWidth, ColorUtils.getColor(255, 255, 255));
+                if (editingHuds.containsKey(hud) && editingHuds.size() == 1) {
+                    nanoVGHelper.drawRect(vg, rightX - 4 * scaleFactor, bottomY - 4 * scaleFactor, 8 * scaleFactor, 8 * scaleFactor, ColorUtils.getColor(0, 128, 128, 200));
+                }
+            }
+            index.drawSnappingLines(vg, lineWidth);
+            if (isSelecting) {
+                nanoVGHelper.drawRect(vg, selectX * scaleFactor, selectY * scaleFactor, (mouseX - selectX) * scaleFactor, (mouseY - selectY) * scaleFactor, ColorUtils.getColor(0, 0, 255, 100));
+            }
+        });
     }
 
     @Override
@@ -136,11 +145,13 @@ public class HudGui extends UScreen implements GuiPause {
                 return;
             }
         }
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || !mouseClickedHud(hud, (float) mouseX, (float) mouseY) || hud.isLocked()) continue;
+        index.update(HudCore.huds.values());
+        Hud hud = index.getHudAt((float) mouseX, (float) mouseY);
+        if (hud != null) {
             if (!editingHuds.containsKey(hud)) {
                 if (!UKeyboard.isCtrlKeyDown()) editingHuds.clear();
                 editingHuds.put(hud, new GrabOffset());
+                index.selectionChanged();
             }
             isDragging = true;
             editingHuds.forEach((hud2, grabOffset) -> grabOffset.setOffset((float) (mouseX - hud2.position.getX()), (float) (mouseY - hud2.position.getY())));
@@ -203,16 +214,13 @@ public class HudGui extends UScreen implements GuiPause {
         }
 
         editingHuds.clear();
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || hud.isLocked()) continue;
-            Position pos = hud.position;
-            if ((x1 <= pos.getX() && x2 >= pos.getX() || x1 <= pos.getRightX() && x2 >= pos.getRightX())
-                    && (y1 <= pos.getY() && y2 >= pos.getY() || y1 <= pos.getBottomY() && y2 >= pos.getBottomY()))
-                editingHuds.put(hud, new GrabOffset());
-        }
+        selected.clear();
+        index.getHudsInRegion(x1, y1, x2, y2, selected);
+        for (Hud hud : selected) editingHuds.put(hud, new GrabOffset());
+        index.selectionChanged();
     }
 
-    private void setHudPositions(long vg, float mouseX, float mouseY, boolean snap, boolean locked, int lineWidth) {
+    private void setHudPositions(float mouseX, float mouseY, boolean snap, boolean locked) {
         for (Hud hud : editingHuds.keySet()) {
             GrabOffset grabOffset = editingHuds.get(hud);
             Position position = hud.position;
@@ -220,8 +228,8 @@ public class HudGui extends UScreen implements GuiPause {
             float y = mouseY - grabOffset.getY();
 
             if (editingHuds.size() == 1 && snap) {
-                x = getXSnapping(vg, lineWidth, x, position.getWidth(), true);
-                y = getYSnapping(vg, lineWidth, y, position.getHeight(), true);
+                x = index.snapX(x, position.getWidth(), true);
+                y = index.snapY(y, position.getHeight(), true);
             }
 
             if (locked) {
@@ -238,77 +246,7 @@ public class HudGui extends UScreen implements GuiPause {
     }
 
     private void setHudPositions(float mouseX, float mouseY, boolean locked) {
-        setHudPositions(0, mouseX, mouseY, false, locked, 0);
-    }
-
-    private boolean mouseClickedHud(Hud hud, float mouseX, float mouseY) {
-        Position position = hud.position;
-        return mouseX >= position.getX() && mouseX <= position.getRightX() &&
-                mouseY >= position.getY() && mouseY <= position.getBottomY();
-    }
-
-    private float getXSnapping(long vg, float lineWidth, float x, float width, boolean multipleSides) {
-        ArrayList<Float> lines = getXSnappingLines();
-        ArrayList<SnappingLine> snappingLines = new ArrayList<>();
-        float closest = (float) (SNAPPING_DISTANCE / UResolution.getScaleFactor());
-        for (Float line : lines) {
-            SnappingLine snappingLine = new SnappingLine(line, x, width, multipleSides);
-            if (Math.round(snappingLine.getDistance()) == Math.round(closest)) snappingLines.add(snappingLine);
-            else if (snappingLine.getDistance() < closest) {
-                closest = snappingLine.getDistance();
-                snappingLines.clear();
-                snappingLines.add(snappingLine);
-            }
-        }
-        if (snappingLines.isEmpty()) return x;
-        for (SnappingLine snappingLine : snappingLines) {
-            snappingLine.drawLine(vg, lineWidth, true);
-        }
-        return snappingLines.get(0).getPosition();
-    }
-
-    private ArrayList<Float> getXSnappingLines() {
-        ArrayList<Float> lines = new ArrayList<>();
-        lines.add(UResolution.getScaledWidth() / 2f);
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || editingHuds.containsKey(hud)) continue;
-            lines.add(hud.position.getX());
-            lines.add(hud.position.getCenterX());
-            lines.add(hud.position.getRightX());
-        }
-        return lines;
-    }
-
-    private float getYSnapping(long vg, float lineWidth, float y, float height, boolean multipleSides) {
-        ArrayList<Float> lines = getYSnappingLines();
-        ArrayList<SnappingLine> snappingLines = new ArrayList<>();
-        float closest = (float) (SNAPPING_DISTANCE / UResolution.getScaleFactor());
-        for (Float line : lines) {
-            SnappingLine snappingLine = new SnappingLine(line, y, height, multipleSides);
-            if (Math.round(snappingLine.getDistance()) == Math.round(closest)) snappingLines.add(snappingLine);
-            else if (snappingLine.getDistance() < closest) {
-                closest = snappingLine.getDistance();
-                snappingLines.clear();
-                snappingLines.add(snappingLine);
-            }
-        }
-        if (snappingLines.isEmpty()) return y;
-        for (SnappingLine snappingLine : snappingLines) {
-            snappingLine.drawLine(vg, lineWidth, false);
-        }
-        return snappingLines.get(0).getPosition();
-    }
-
-    private ArrayList<Float> getYSnappingLines() {
-        ArrayList<Float> lines = new ArrayList<>();
-        lines.add(UResolution.getScaledHeight() / 2f);
-        for (Hud hud : HudCore.huds.values()) {
-            if (!hud.isEnabled() || editingHuds.containsKey(hud)) continue;
-            lines.add(hud.position.getY());
-            lines.add(hud.position.getCenterY());
-            lines.add(hud.position.getBottomY());
-        }
-        return lines;
+        setHudPositions(mouseX, mouseY, false, locked);
     }
 
     private String superSecretString = "";
@@ -0,0 +1,100 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.gui;
+
+import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
+import cc.polyfrost.oneconfig.utils.SearchUtils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search results of the OneConfig GUI search box. Every text is matched against the query at most once per query change,
+ * after which the GUI reads the result from here every frame instead of running {@link SearchUtils#isSimilar(String, String)} again.
+ * <p>
+ * {@link #getVersion()} changes whenever the results are reset, so pages can cache lists they derived from the results.
+ */
+public final class SearchIndex {
+    private static final Map<String, Boolean> results = new HashMap<>();
+    private static String rawQuery = "";
+    private static String query = "";
+    private static int searchDistance = Preferences.searchDistance;
+    private static int version;
+
+    private SearchIndex() {
+    }
+
+    /**
+     * @return The current search query, lowercase and trimmed, or an empty string if nothing is searched
+     */
+    public static String getQuery() {
+        update();
+        return query;
+    }
+
+    /**
+     * @return If something is being searched
+     */
+    public static boolean isSearching() {
+        return !getQuery().isEmpty();
+    }
+
+    /**
+     * @return A number that changes every time the search results change
+     */
+    public static int getVersion() {
+        update();
+        return version;
+    }
+
+    /**
+     * @param text The text to check, e.g. the name of a mod or option
+     * @return If the text matches the current query, always true if nothing is being searched
+     */
+    public static boolean matches(String text) {
+        update();
+        if (query.isEmpty()) return true;
+        Boolean result = results.get(text);
+        if (result == null) {
+            result = SearchUtils.isSimilar(text, query);
+            results.put(text, result);
+        }
+        return result;
+    }
+
+    private static void update() {
+        String input = OneConfigGui.INSTANCE == null ? "" : OneConfigGui.INSTANCE.getSearchValue();
+        if (input.equals(rawQuery) && searchDistance == Preferences.searchDistance) return;
+        rawQuery = input;
+        searchDistance = Preferences.searchDistance;
+        query = input.toLowerCase(Locale.ENGLISH).trim();
+        results.clear();
+        version++;
+    }
+}
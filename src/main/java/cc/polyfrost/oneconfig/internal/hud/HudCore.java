@@ -29,10 +29,12 @@ package cc.polyfrost.oneconfig.internal.hud;
 import cc.polyfrost.oneconfig.config.elements.BasicOption;
 import cc.polyfrost.oneconfig.events.event.HudRenderEvent;
 import cc.polyfrost.oneconfig.events.event.InitializationEvent;
+import cc.polyfrost.oneconfig.hud.BasicHud;
 import cc.polyfrost.oneconfig.hud.Hud;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
 import cc.polyfrost.oneconfig.platform.Platform;
+import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
 
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -44,20 +46,59 @@ public class HudCore {
     public static final ArrayList<BasicOption> hudOptions = new ArrayList<>();
     private static boolean isPatcher = false;
     public static boolean editing = false;
+    private static final ArrayList<Hud> drawing = new ArrayList<>();
+    private static final ArrayList<BasicHud> batched = new ArrayList<>();
+    private static int lastPassHuds = 0;
+    private static int lastPassBatched = 0;
 
+    /**
+     * Draws all HUDs. The backgrounds of every {@link BasicHud} that allows it are drawn first, in a single NanoVG frame
+     * shared by the whole pass, instead of every HUD setting up its own frame. A HUD that overlaps a HUD drawn before it
+     * draws its background in order instead, so overlapping HUDs stack like before. If no HUD has such a background, no
+     * frame is set up.
+     */
     @Subscribe
     public void onRender(HudRenderEvent event) {
         if (editing) return;
+        drawing.clear();
+        batched.clear();
         for (Hud hud : huds.values()) {
             if (!hud.isEnabled()) continue;
             //#if FORGE==1 && MC<=11202
             if (hud.isCachingIgnored()) continue;
             //#endif
             hud.deltaTicks = event.deltaTicks;
+            drawing.add(hud);
+        }
+        for (int i = 0; i < drawing.size(); i++) {
+            Hud hud = drawing.get(i);
+            if (!(hud instanceof BasicHud) || !((BasicHud) hud).canBatchBackground()) continue;
+            BasicHud basicHud = (BasicHud) hud;
+            basicHud.prepareBackground();
+            if (!overlapsEarlier(basicHud, i)) batched.add(basicHud);
+        }
+        if (!batched.isEmpty()) {
+            NanoVGHelper.INSTANCE.setupAndDraw(true, vg -> {
+                for (BasicHud hud : batched) hud.drawBatchedBackground(vg);
+            });
+        }
+        for (Hud hud : drawing) {
             UGraphics.enableAlpha();
             UGraphics.enableBlend();
             hud.drawAll(event.matrices, false);
         }
+        lastPassHuds = drawing.size();
+        lastPassBatched = batched.size();
+    }
+
+    /**
+     * @return If the HUD overlaps any HUD drawn before it, which has to stay below its background
+     */
+    private static boolean overlapsEarlier(BasicHud hud, int index) {
+        for (int i = 0; i < index; i++) {
+            if (hud.overlaps(drawing.get(i))) return true;
+        }
+        return false;
     }
 
     @Subscribe
@@ -73,6 +114,7 @@ public class HudCore {
                 Hud oldHud = huds.get(field);
                 Hud newHud = (Hud) field.getKey().get(field.getValue());
                 newHud.setConfig(oldHud.getConfig());
+                oldHud.releaseRetainedRender();
                 for (BasicOption option : hudOptions) {
                     if (option.getParent().equals(oldHud)) {
                         option.setParent(newHud);
@@ -87,4 +129,19 @@ public class HudCore {
     public static boolean isPatcher() {
         return isPatcher;
     }
+
+    /**
+     * @return the amount of HUDs drawn in the last HUD render pass
+     */
+    public static int getLastPassHuds() {
+        return lastPassHuds;
+    }
+
+    /**
+     * @return the amount of HUDs in the last HUD render pass whose backgrounds shared one NanoVG frame. Every other HUD
+     * may have set up frames of its own.
+     */
+    public static int getLastPassBatched() {
+        return lastPassBatched;
+    }
 }
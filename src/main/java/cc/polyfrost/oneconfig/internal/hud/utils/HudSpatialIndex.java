@@ -0,0 +1,347 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.internal.hud.utils;
+
+import cc.polyfrost.oneconfig.hud.Hud;
+import cc.polyfrost.oneconfig.hud.Position;
+import cc.polyfrost.oneconfig.libs.universal.UResolution;
+import cc.polyfrost.oneconfig.renderer.NanoVGHelper;
+import org.jetbrains.annotations.Nullable;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the enabled HUDs of the HUD editor in a uniform grid for hit-testing and in sorted arrays of edges for snapping,
+ * so neither has to scan every HUD. Both are only rebuilt when a HUD moves, resizes, or the selection changes.
+ */
+public class HudSpatialIndex {
+    private static final int SNAPPING_DISTANCE = 10;
+    private static final int SNAPPING_COLOR = new Color(138, 43, 226).getRGB();
+    private static final float CELL_SIZE = 64f;
+    private final Map<Hud, ?> editing;
+    private Hud[] huds = new Hud[16];
+    /**
+     * The left, top, right and bottom edge of every HUD, as they were when the index last saw them.
+     */
+    private float[] bounds = new float[16 * 4];
+    private int count = 0;
+    private float screenWidth = -1f;
+    private float screenHeight = -1f;
+    private boolean gridDirty = true;
+    private boolean snapDirty = true;
+
+    private int columns = 1;
+    private int rows = 1;
+    private int[][] cells = new int[0][];
+    private int[] cellSizes = new int[0];
+    private int[] stamps = new int[16];
+    private int stamp = 0;
+
+    private float[] xLines = new float[16];
+    private float[] yLines = new float[16];
+    private int xLineCount = 0;
+    private int yLineCount = 0;
+    private float[] snappedX = new float[4];
+    private float[] snappedY = new float[4];
+    private int snappedXCount = 0;
+    private int snappedYCount = 0;
+
+    /**
+     * @param editing The HUDs being edited, which are not snapped to
+     */
+    public HudSpatialIndex(Map<Hud, ?> editing) {
+        this.editing = editing;
+    }
+
+    /**
+     * Compares the HUDs with what the index last saw, marking whatever depends on them as outdated. This only reads the
+     * positions, so it is cheap enough to call every frame.
+     */
+    public void update(Collection<Hud> all) {
+        float width = UResolution.getScaledWidth();
+        float height = UResolution.getScaledHeight();
+        if (width != screenWidth || height != screenHeight) {
+            screenWidth = width;
+            screenHeight = height;
+            gridDirty = true;
+            snapDirty = true;
+        }
+        int i = 0;
+        for (Hud hud : all) {
+            if (!hud.isEnabled()) continue;
+            if (i == huds.length) {
+                huds = Arrays.copyOf(huds, i * 2);
+                bounds = Arrays.copyOf(bounds, i * 2 * 4);
+            }
+            Position position = hud.position;
+            int b = i * 4;
+            if (huds[i] != hud) {
+                huds[i] = hud;
+                gridDirty = true;
+                snapDirty = true;
+            } else if (bounds[b] != position.getX() || bounds[b + 1] != position.getY() || bounds[b + 2] != position.getRightX() || bounds[b + 3] != position.getBottomY()) {
+                gridDirty = true;
+                if (!editing.containsKey(hud)) snapDirty = true;
+            }
+            bounds[b] = position.getX();
+            bounds[b + 1] = position.getY();
+            bounds[b + 2] = position.getRightX();
+            bounds[b + 3] = position.getBottomY();
+            i++;
+        }
+        if (i != count) {
+            Arrays.fill(huds, i, Math.max(i, count), null);
+            count = i;
+            gridDirty = true;
+            snapDirty = true;
+        }
+    }
+
+    /**
+     * Has to be called when HUDs are added to or removed from the edited HUDs.
+     */
+    public void selectionChanged() {
+        snapDirty = true;
+    }
+
+    /**
+     * @return The first unlocked HUD at the given position, or null if there is none
+     */
+    @Nullable
+    public Hud getHudAt(float x, float y) {
+        if (gridDirty) buildGrid();
+        int cell = row(y) * columns + column(x);
+        int[] candidates = cells[cell];
+        for (int j = 0; j < cellSizes[cell]; j++) {
+            int i = candidates[j];
+            int b = i * 4;
+            if (x >= bounds[b] && x <= bounds[b + 2] && y >= bounds[b + 1] && y <= bounds[b + 3] && !huds[i].isLocked()) {
+                return huds[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds every unlocked HUD that has both a vertical and a horizontal edge inside the region to the list.
+     */
+    public void getHudsInRegion(float x1, float y1, float x2, float y2, List<Hud> result) {
+        if (gridDirty) buildGrid();
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        for (int row = row(y1); row <= row(y2); row++) {
+            for (int column = column(x1); column <= column(x2); column++) {
+                int cell = row * columns + column;
+                int[] candidates = cells[cell];
+                for (int j = 0; j < cellSizes[cell]; j++) {
+                    int i = candidates[j];
+                    if (stamps[i] == stamp) continue;
+                    stamps[i] = stamp;
+                    int b = i * 4;
+                    if ((x1 <= bounds[b] && x2 >= bounds[b] || x1 <= bounds[b + 2] && x2 >= bounds[b + 2])
+                            && (y1 <= bounds[b + 1] && y2 >= bounds[b + 1] || y1 <= bounds[b + 3] && y2 >= bounds[b + 3])
+                            && !huds[i].isLocked())
+                        result.add(huds[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Snaps a horizontal position to the closest vertical edge, center line or screen center of the HUDs that are not being edited.
+     *
+     * @param x             The left edge
+     * @param width         The width of what is being snapped
+     * @param multipleSides If the center and the right edge can snap as well
+     * @return The snapped left edge, or x if nothing is close enough
+     */
+    public float snapX(float x, float width, boolean multipleSides) {
+        return snap(true, x, width, multipleSides);
+    }
+
+    /**
+     * @see #snapX(float, float, boolean)
+     */
+    public float snapY(float y, float height, boolean multipleSides) {
+        return snap(false, y, height, multipleSides);
+    }
+
+    /**
+     * Draws the lines the last snapping snapped to, in window coordinates.
+     */
+    public void drawSnappingLines(long vg, float lineWidth) {
+        NanoVGHelper nanoVGHelper = NanoVGHelper.INSTANCE;
+        float scaleFactor = (float) UResolution.getScaleFactor();
+        for (int i = 0; i < snappedXCount; i++) {
+            float pos = snappedX[i] * scaleFactor - lineWidth / 2f;
+            nanoVGHelper.drawLine(vg, pos, 0, pos, UResolution.getWindowHeight(), lineWidth, SNAPPING_COLOR);
+        }
+        for (int i = 0; i < snappedYCount; i++) {
+            float pos = snappedY[i] * scaleFactor - lineWidth / 2f;
+            nanoVGHelper.drawLine(vg, 0, pos, UResolution.getWindowWidth(), pos, lineWidth, SNAPPING_COLOR);
+        }
+        snappedXCount = 0;
+        snappedYCount = 0;
+    }
+
+    private float snap(boolean isX, float left, float size, boolean multipleSides) {
+        if (snapDirty) buildSnappingLines();
+        float[] lines = isX ? xLines : yLines;
+        int lineCount = isX ? xLineCount : yLineCount;
+        float[] snapped = isX ? snappedX : snappedY;
+        int snappedCount = 0;
+        float closest = (float) (SNAPPING_DISTANCE / UResolution.getScaleFactor());
+        // lines just outside the snapping distance can still round to it
+        float range = closest + 0.5f;
+        float center = left + size / 2f;
+        float right = left + size;
+        float position = left;
+        int end = 0;
+        for (int anchor = 0; anchor < (multipleSides ? 3 : 1); anchor++) {
+            float value = anchor == 0 ? left : anchor == 1 ? center : right;
+            for (int i = Math.max(lowerBound(lines, lineCount, value - range), end); i < lineCount && lines[i] <= value + range; i++) {
+                end = i + 1;
+                float line = lines[i];
+                float leftDistance = Math.abs(line - left);
+                float centerDistance = Math.abs(line - center);
+                float rightDistance = Math.abs(line - right);
+                float distance;
+                float linePosition;
+                if (!multipleSides || leftDistance <= centerDistance && leftDistance <= rightDistance) {
+                    distance = leftDistance;
+                    linePosition = line;
+                } else if (centerDistance <= rightDistance) {
+                    distance = centerDistance;
+                    linePosition = line - size / 2f;
+                } else {
+                    distance = rightDistance;
+                    linePosition = line - size;
+                }
+                if (Math.round(distance) != Math.round(closest)) {
+                    if (distance >= closest) continue;
+                    closest = distance;
+                    snappedCount = 0;
+                }
+                if (snappedCount == 0) position = linePosition;
+                if (snappedCount == snapped.length) snapped = Arrays.copyOf(snapped, snappedCount * 2);
+                snapped[snappedCount++] = line;
+            }
+        }
+        if (isX) {
+            snappedX = snapped;
+            snappedXCount = snappedCount;
+        } else {
+            snappedY = snapped;
+            snappedYCount = snappedCount;
+        }
+        return position;
+    }
+
+    private void buildSnappingLines() {
+        int capacity = count * 3 + 1;
+        if (xLines.length < capacity) {
+            xLines = new float[capacity];
+            yLines = new float[capacity];
+        }
+        xLineCount = 0;
+        yLineCount = 0;
+        xLines[xLineCount++] = screenWidth / 2f;
+        yLines[yLineCount++] = screenHeight / 2f;
+        for (int i = 0; i < count; i++) {
+            if (editing.containsKey(huds[i])) continue;
+            int b = i * 4;
+            xLines[xLineCount++] = bounds[b];
+            xLines[xLineCount++] = (bounds[b] + bounds[b + 2]) / 2f;
+            xLines[xLineCount++] = bounds[b + 2];
+            yLines[yLineCount++] = bounds[b + 1];
+            yLines[yLineCount++] = (bounds[b + 1] + bounds[b + 3]) / 2f;
+            yLines[yLineCount++] = bounds[b + 3];
+        }
+        Arrays.sort(xLines, 0, xLineCount);
+        Arrays.sort(yLines, 0, yLineCount);
+        snapDirty = false;
+    }
+
+    private void buildGrid() {
+        columns = Math.max(1, (int) Math.ceil(screenWidth / CELL_SIZE));
+        rows = Math.max(1, (int) Math.ceil(screenHeight / CELL_SIZE));
+        int cellCount = columns * rows;
+        if (cells.length < cellCount) {
+            cells = Arrays.copyOf(cells, cellCount);
+            cellSizes = new int[cellCount];
+        } else {
+            Arrays.fill(cellSizes, 0, cellCount, 0);
+        }
+        if (stamps.length < count) stamps = new int[huds.length];
+        for (int i = 0; i < count; i++) {
+            int b = i * 4;
+            int lastRow = row(bounds[b + 3]);
+            int lastColumn = column(bounds[b + 2]);
+            for (int row = row(bounds[b + 1]); row <= lastRow; row++) {
+                for (int column = column(bounds[b]); column <= lastColumn; column++) {
+                    int cell = row * columns + column;
+                    int[] candidates = cells[cell];
+                    if (candidates == null) {
+                        candidates = cells[cell] = new int[4];
+                    } else if (cellSizes[cell] == candidates.length) {
+                        candidates = cells[cell] = Arrays.copyOf(candidates, candidates.length * 2);
+                    }
+                    candidates[cellSizes[cell]++] = i;
+                }
+            }
+        }
+        gridDirty = false;
+    }
+
+    /**
+     * Cells at the edges of the grid also hold everything beyond the screen.
+     */
+    private int column(float x) {
+        return Math.min(Math.max((int) Math.floor(x / CELL_SIZE), 0), columns - 1);
+    }
+
+    private int row(float y) {
+        return Math.min(Math.max((int) Math.floor(y / CELL_SIZE), 0), rows - 1);
+    }
+
+    private static int lowerBound(float[] values, int length, float key) {
+        int low = 0;
+        int high = length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+}
@@ -28,35 +28,79 @@ package cc.polyfrost.oneconfig.internal.renderer;
 
 import cc.polyfrost.oneconfig.internal.assets.Images;
 import cc.polyfrost.oneconfig.internal.assets.SVGs;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.renderer.asset.AssetHelper;
 import cc.polyfrost.oneconfig.renderer.asset.Image;
 import cc.polyfrost.oneconfig.renderer.asset.NVGAsset;
 import cc.polyfrost.oneconfig.renderer.asset.SVG;
 import cc.polyfrost.oneconfig.utils.IOUtils;
+import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 import org.lwjgl.nanovg.NSVGImage;
 import org.lwjgl.nanovg.NanoSVG;
 import org.lwjgl.nanovg.NanoVG;
 import org.lwjgl.stb.STBImage;
 import org.lwjgl.system.MemoryUtil;
 
-import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * Loads images and SVGs from resources into NanoVG.
+ * Loaded textures are kept within {@link Preferences#textureMemoryBudget}, unloading the least recently drawn ones.
  *
  * @see NanoVGHelperImpl
  * @see Images
  * @see SVGs
  */
 public final class AssetHelperImpl implements AssetHelper {
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Assets");
     public static final int DEFAULT_FLAGS = NanoVG.NVG_IMAGE_REPEATX | NanoVG.NVG_IMAGE_REPEATY | NanoVG.NVG_IMAGE_GENERATE_MIPMAPS;
-    private final Map<String, NVGAsset> imageHashMap = new HashMap<>();
-    private final Map<String, NVGAsset> svgHashMap = new HashMap<>();
+    /**
+     * Returned by {@link #pollImage} and {@link #pollSVG} while the asset is still being decoded.
+     */
+    public static final int LOADING = 0;
+    /**
+     * Returned by {@link #pollImage} and {@link #pollSVG} if the asset could not be loaded.
+     */
+    public static final int FAILED = -1;
+    private final Map<String, Texture> imageHashMap = new HashMap<>();
+    private final Map<String, Texture> svgHashMap = new HashMap<>();
+    /**
+     * Every loaded texture, least recently drawn first.
+     */
+    private final LinkedHashMap<Texture, Texture> textures = new LinkedHashMap<>(64, 0.75f, true);
+    private long textureBytes = 0L;
+    private final Map<String, SVGSource> svgSources = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Decoded>> pendingImages = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Decoded>> pendingSVGs = new ConcurrentHashMap<>();
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setNameFormat("OneConfig Asset Decoder-%d").setDaemon(true).build());
+    private final SVGRasterCache svgCache = new SVGRasterCache(new File("./OneConfig/cache/svgs"), 64L * 1024 * 1024);
+
+    public AssetHelperImpl() {
+        prewarmSVGs();
+    }
 
     /**
      * Loads an assets from resources.
@@ -68,25 +112,47 @@ public final class AssetHelperImpl implements AssetHelper {
      */
     @Override
     public boolean loadImage(long vg, String fileName, int flags, Class<?> clazz) {
-        if (!imageHashMap.containsKey(fileName)) {
+        if (use(imageHashMap, fileName) != null) return true;
+        CompletableFuture<Decoded> decoded = decodeImage(fileName, clazz);
+        decoded.join();
+        return upload(vg, imageHashMap, pendingImages, fileName, decoded, flags) != FAILED;
+    }
+
+    /**
+     * Get an image for drawing without blocking the render thread, starting to decode it in the background if needed.
+     *
+     * @return The NanoVG image, {@link #LOADING} while it's still being decoded or {@link #FAILED}
+     */
+    public int pollImage(long vg, String fileName, int flags, Class<?> clazz) {
+        Texture texture = use(imageHashMap, fileName);
+        if (texture != null) return texture.getImage();
+        CompletableFuture<Decoded> decoded = decodeImage(fileName, clazz);
+        if (!decoded.isDone()) return LOADING;
+        return upload(vg, imageHashMap, pendingImages, fileName, decoded, flags);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> prefetchImage(String fileName, Class<?> clazz) {
+        return decodeImage(fileName, clazz).thenApply(Objects::nonNull);
+    }
+
+    private CompletableFuture<Decoded> decodeImage(String fileName, Class<?> clazz) {
+        return pendingImages.computeIfAbsent(fileName, key -> CompletableFuture.supplyAsync(() -> {
             int[] width = {0};
             int[] height = {0};
             int[] channels = {0};
 
-            ByteBuffer image = IOUtils.resourceToByteBufferNullable(fileName, clazz);
+            ByteBuffer image = IOUtils.resourceToByteBufferNullable(key, clazz);
             if (image == null) {
-                return false;
+                return null;
             }
 
             ByteBuffer buffer = STBImage.stbi_load_from_memory(image, width, height, channels, 4);
             if (buffer == null) {
-                return false;
+                return null;
             }
-
-            imageHashMap.put(fileName, new NVGAsset(NanoVG.nvgCreateImageRGBA(vg, width[0], height[0], flags, buffer), width[0], height[0]));
-            return true;
-        }
-        return true;
+            return new Decoded(buffer, width[0], height[0], STBImage::stbi_image_free);
+        }, decodeExecutor));
     }
 
     /**
@@ -131,43 +197,132 @@ public final class AssetHelperImpl implements AssetHelper {
     @Override
     public boolean loadSVG(long vg, String fileName, float width, float height, int flags, Class<?> clazz) {
         String name = fileName + "-" + width + "-" + height;
-        if (!svgHashMap.containsKey(name)) {
-            try {
-                InputStream inputStream = this.getClass().getResourceAsStream(fileName);
-                if (inputStream == null) return false;
-                StringBuilder resultStringBuilder = new StringBuilder();
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        resultStringBuilder.append(line);
-                    }
-                }
-                CharSequence s = resultStringBuilder.toString();
-                NSVGImage svg = NanoSVG.nsvgParse(s, "px", 96f);
-                if (svg == null) return false;
-                long rasterizer = NanoSVG.nsvgCreateRasterizer();
+        if (use(svgHashMap, name) != null) return true;
+        CompletableFuture<Decoded> decoded = decodeSVG(name, fileName, width, height);
+        decoded.join();
+        return upload(vg, svgHashMap, pendingSVGs, name, decoded, flags) != FAILED;
+    }
 
-                int w = (int) svg.width();
-                int h = (int) svg.height();
-                float scale = Math.max(width / w, height / h);
-                w = (int) (w * scale);
-                h = (int) (h * scale);
+    /**
+     * Get an SVG for drawing without blocking the render thread, starting to rasterize it in the background if needed.
+     *
+     * @return The NanoVG image, {@link #LOADING} while it's still being rasterized or {@link #FAILED}
+     */
+    public int pollSVG(long vg, String fileName, float width, float height, int flags) {
+        String name = fileName + "-" + width + "-" + height;
+        Texture texture = use(svgHashMap, name);
+        if (texture != null) return texture.getImage();
+        CompletableFuture<Decoded> decoded = decodeSVG(name, fileName, width, height);
+        if (!decoded.isDone()) return LOADING;
+        return upload(vg, svgHashMap, pendingSVGs, name, decoded, flags);
+    }
 
-                ByteBuffer image = MemoryUtil.memAlloc(w * h * 4);
-                NanoSVG.nsvgRasterize(rasterizer, svg, 0, 0, scale, image, w, h, w * 4);
+    @Override
+    public CompletableFuture<Boolean> prefetchSVG(String fileName, float width, float height, Class<?> clazz) {
+        return decodeSVG(fileName + "-" + width + "-" + height, fileName, width, height).thenApply(Objects::nonNull);
+    }
+
+    private CompletableFuture<Decoded> decodeSVG(String name, String fileName, float width, float height) {
+        return pendingSVGs.computeIfAbsent(name, key -> CompletableFuture.supplyAsync(() -> {
+            try {
+                SVGSource source = getSVGSource(fileName);
+                if (source == null) return null;
 
-                NanoSVG.nsvgDeleteRasterizer(rasterizer);
-                NanoSVG.nsvgDelete(svg);
+                float scale = Math.max(width / source.width, height / source.height);
+                int w = (int) (source.width * scale);
+                int h = (int) (source.height * scale);
 
-                svgHashMap.put(name, new NVGAsset(NanoVG.nvgCreateImageRGBA(vg, w, h, flags, image), w, h));
-                return true;
+                ByteBuffer image = svgCache.get(source.hash, w, h);
+                if (image != null) return new Decoded(image, w, h, null);
+
+                image = rasterizeSVG(source, scale, w, h);
+                if (image == null) return null;
+                svgCache.put(source.hash, w, h, image);
+                return new Decoded(image, w, h, MemoryUtil::memFree);
             } catch (Exception e) {
-                System.err.println("Failed to parse SVG file");
-                e.printStackTrace();
-                return false;
+                LOGGER.error("Failed to parse SVG file " + fileName, e);
+                return null;
+            }
+        }, decodeExecutor));
+    }
+
+    /**
+     * Upload a decoded asset on the render thread. Assets that failed to decode stay pending so they aren't retried every frame.
+     */
+    private int upload(long vg, Map<String, Texture> map, Map<String, CompletableFuture<Decoded>> pending, String name, CompletableFuture<Decoded> future, int flags) {
+        Decoded decoded = future.join();
+        if (decoded == null) return FAILED;
+        pending.remove(name, future);
+        try {
+            int image = NanoVG.nvgCreateImageRGBA(vg, decoded.width, decoded.height, flags, decoded.pixels);
+            if (image == 0) {
+                pending.put(name, CompletableFuture.completedFuture(null));
+                return FAILED;
             }
+            addTexture(vg, map, name, image, decoded.width, decoded.height, flags);
+            return image;
+        } finally {
+            decoded.free();
         }
-        return true;
+    }
+
+    /**
+     * Read an SVG resource and find its intrinsic size, from the raster cache if possible so it doesn't need to be parsed.
+     */
+    private SVGSource getSVGSource(String fileName) throws IOException {
+        SVGSource source = svgSources.get(fileName);
+        if (source != null) return source;
+        byte[] data;
+        try (InputStream inputStream = this.getClass().getResourceAsStream(fileName)) {
+            if (inputStream == null) return null;
+            data = ByteStreams.toByteArray(inputStream);
+        }
+        String hash = Hashing.murmur3_128().hashBytes(data).toString();
+        int[] size = svgCache.getSourceSize(hash);
+        if (size == null) {
+            NSVGImage svg = parseSVG(data);
+            if (svg == null) return null;
+            size = new int[]{(int) svg.width(), (int) svg.height()};
+            NanoSVG.nsvgDelete(svg);
+            svgCache.putSourceSize(hash, size[0], size[1]);
+        }
+        source = new SVGSource(data, hash, size[0], size[1]);
+        svgSources.put(fileName, source);
+        return source;
+    }
+
+    private static NSVGImage parseSVG(byte[] data) {
+        return NanoSVG.nsvgParse(new String(data, StandardCharsets.UTF_8), "px", 96f);
+    }
+
+    private static ByteBuffer rasterizeSVG(SVGSource source, float scale, int w, int h) {
+        NSVGImage svg = parseSVG(source.data);
+        if (svg == null) return null;
+        long rasterizer = NanoSVG.nsvgCreateRasterizer();
+
+        ByteBuffer image = MemoryUtil.memAlloc(w * h * 4);
+        NanoSVG.nsvgRasterize(rasterizer, svg, 0, 0, scale, image, w, h, w * 4);
+
+        NanoSVG.nsvgDeleteRasterizer(rasterizer);
+        NanoSVG.nsvgDelete(svg);
+        return image;
+    }
+
+    /**
+     * Read the built-in SVGs in the background and map their cached rasters, so the first GUI open only has to upload them.
+     */
+    private void prewarmSVGs() {
+        svgCache.submit(() -> {
+            for (Field field : SVGs.class.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType() != SVG.class) continue;
+                try {
+                    SVGSource source = getSVGSource(((SVG) field.get(null)).filePath);
+                    if (source != null) svgCache.preload(source.hash);
+                } catch (Exception e) {
+                    LOGGER.debug("Failed to prewarm SVG " + field.getName(), e);
+                }
+            }
+        });
     }
 
     /**
@@ -207,26 +362,32 @@ public final class AssetHelperImpl implements AssetHelper {
      * Get a loaded assets from the cache.
      * <p><b>Requires the assets to have been loaded first.</b></p>
      *
+     * Textures can be unloaded to stay within the texture memory budget, load it again after a miss.
+     *
      * @param fileName The name of the file to load.
-     * @return The assets
+     * @return The assets, or -1 if it isn't loaded
      * @see AssetHelperImpl#loadImage(long, String, Class)
      */
     @Override
     public int getImage(String fileName) {
-        return imageHashMap.get(fileName).getImage();
+        Texture texture = use(imageHashMap, fileName);
+        return texture == null ? -1 : texture.getImage();
     }
 
     /**
      * Get a loaded assets from the cache.
      * <p><b>Requires the assets to have been loaded first.</b></p>
      *
+     * Textures can be unloaded to stay within the texture memory budget, load it again after a miss.
+     *
      * @param fileName The name of the file to load.
-     * @return The image and its data
+     * @return The image and its data, or null if it isn't loaded
      * @see AssetHelperImpl#loadImage(long, String, Class)
      */
     @Override
+    @Nullable
     public NVGAsset getNVGImage(String fileName) {
-        return imageHashMap.get(fileName);
+        return use(imageHashMap, fileName);
     }
 
     /**
@@ -239,8 +400,8 @@ public final class AssetHelperImpl implements AssetHelper {
      */
     @Override
     public void removeImage(long vg, String fileName) {
-        NanoVG.nvgDeleteImage(vg, imageHashMap.get(fileName).getImage());
-        imageHashMap.remove(fileName);
+        Texture texture = imageHashMap.get(fileName);
+        if (texture != null) removeTexture(vg, texture);
     }
 
     /**
@@ -251,38 +412,43 @@ public final class AssetHelperImpl implements AssetHelper {
      */
     @Override
     public void clearImages(long vg) {
-        Map<String, NVGAsset> temp = new HashMap<>(imageHashMap);
-        for (String image : temp.keySet()) {
-            NanoVG.nvgDeleteImage(vg, imageHashMap.get(image).getImage());
-            imageHashMap.remove(image);
+        for (Texture texture : new ArrayList<>(imageHashMap.values())) {
+            removeTexture(vg, texture);
         }
+        clearPending(pendingImages);
     }
 
     /**
      * Get a loaded SVG from the cache.
      * <p><b>Requires the SVG to have been loaded first.</b></p>
      *
+     * Textures can be unloaded to stay within the texture memory budget, load it again after a miss.
+     *
      * @param fileName The name of the file to load.
-     * @return The SVG
+     * @return The SVG, or -1 if it isn't loaded
      * @see AssetHelperImpl#loadSVG(long, String, float, float, Class)
      */
     @Override
     public int getSVG(String fileName, float width, float height) {
         String name = fileName + "-" + width + "-" + height;
-        return svgHashMap.get(name).getImage();
+        Texture texture = use(svgHashMap, name);
+        return texture == null ? -1 : texture.getImage();
     }
 
     /**
      * Get a loaded assets from the cache.
      * <p><b>Requires the assets to have been loaded first.</b></p>
      *
+     * Textures can be unloaded to stay within the texture memory budget, load it again after a miss.
+     *
      * @param fileName The name of the file to load.
-     * @return The SVG and its data
+     * @return The SVG and its data, or null if it isn't loaded
      * @see AssetHelperImpl#loadImage(long, String, Class)
      */
     @Override
+    @Nullable
     public NVGAsset getNVGSVG(String fileName) {
-        return svgHashMap.get(fileName);
+        return use(svgHashMap, fileName);
     }
 
     /**
@@ -296,8 +462,8 @@ public final class AssetHelperImpl implements AssetHelper {
     @Override
     public void removeSVG(long vg, String fileName, float width, float height) {
         String name = fileName + "-" + width + "-" + height;
-        NanoVG.nvgDeleteImage(vg, imageHashMap.get(name).getImage());
-        svgHashMap.remove(name);
+        Texture texture = svgHashMap.get(name);
+        if (texture != null) removeTexture(vg, texture);
     }
 
     /**
@@ -308,10 +474,132 @@ public final class AssetHelperImpl implements AssetHelper {
      */
     @Override
     public void clearSVGs(long vg) {
-        Map<String, NVGAsset> temp = new HashMap<>(svgHashMap);
-        for (String image : temp.keySet()) {
-            NanoVG.nvgDeleteImage(vg, svgHashMap.get(image).getImage());
-            svgHashMap.remove(image);
+        for (Texture texture : new ArrayList<>(svgHashMap.values())) {
+            removeTexture(vg, texture);
+        }
+        clearPending(pendingSVGs);
+    }
+
+    /**
+     * Drop decoded assets that were never uploaded, and forget failed ones so they can be retried.
+     */
+    private static void clearPending(Map<String, CompletableFuture<Decoded>> pending) {
+        pending.values().removeIf(future -> {
+            if (!future.isDone()) return false;
+            Decoded decoded = future.join();
+            if (decoded != null) decoded.free();
+            return true;
+        });
+    }
+
+    @Override
+    public long getTextureMemoryUsage() {
+        return textureBytes;
+    }
+
+    @Override
+    public Map<String, Long> getTextureMemoryUsageByAsset() {
+        Map<String, Long> usage = new LinkedHashMap<>();
+        for (Texture texture : textures.keySet()) usage.put(texture.name, texture.bytes);
+        return usage;
+    }
+
+    /**
+     * Look up a texture and mark it as drawn this frame.
+     */
+    private Texture use(Map<String, Texture> map, String name) {
+        Texture texture = map.get(name);
+        if (texture != null) {
+            texture.lastUsedFrame = GuiUtils.getFrameCount();
+            textures.get(texture);
+        }
+        return texture;
+    }
+
+    private void addTexture(long vg, Map<String, Texture> map, String name, int image, int width, int height, int flags) {
+        long bytes = (long) width * height * 4;
+        // a full mipmap chain adds a third
+        if ((flags & NanoVG.NVG_IMAGE_GENERATE_MIPMAPS) != 0) bytes += bytes / 3;
+        Texture texture = new Texture(image, width, height, map, name, bytes);
+        texture.lastUsedFrame = GuiUtils.getFrameCount();
+        Texture previous = map.put(name, texture);
+        if (previous != null) removeTexture(vg, previous);
+        textures.put(texture, texture);
+        textureBytes += bytes;
+        trimTextures(vg);
+    }
+
+    /**
+     * Unload the least recently drawn textures until the total is within {@link Preferences#textureMemoryBudget}.
+     * Textures drawn this frame are never unloaded, NanoVG may still have to render them.
+     */
+    private void trimTextures(long vg) {
+        long budget = Preferences.textureMemoryBudget * 1024L * 1024L;
+        long frame = GuiUtils.getFrameCount();
+        Iterator<Texture> iterator = textures.keySet().iterator();
+        while (textureBytes > budget && iterator.hasNext()) {
+            Texture texture = iterator.next();
+            if (texture.lastUsedFrame >= frame) break;
+            iterator.remove();
+            unloadTexture(vg, texture);
+        }
+    }
+
+    private void removeTexture(long vg, Texture texture) {
+        textures.remove(texture);
+        unloadTexture(vg, texture);
+    }
+
+    private void unloadTexture(long vg, Texture texture) {
+        NanoVG.nvgDeleteImage(vg, texture.getImage());
+        if (texture.owner.get(texture.name) == texture) texture.owner.remove(texture.name);
+        textureBytes -= texture.bytes;
+    }
+
+    private static final class Texture extends NVGAsset {
+        private final Map<String, Texture> owner;
+        private final String name;
+        private final long bytes;
+        private long lastUsedFrame;
+
+        private Texture(int image, int width, int height, Map<String, Texture> owner, String name, long bytes) {
+            super(image, width, height);
+            this.owner = owner;
+            this.name = name;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Decoded {
+        private final ByteBuffer pixels;
+        private final int width;
+        private final int height;
+        @Nullable
+        private final Consumer<ByteBuffer> release;
+
+        private Decoded(ByteBuffer pixels, int width, int height, @Nullable Consumer<ByteBuffer> release) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.release = release;
+        }
+
+        private void free() {
+            if (release != null) release.accept(pixels);
+        }
+    }
+
+    private static final class SVGSource {
+        private final byte[] data;
+        private final String hash;
+        private final int width;
+        private final int height;
+
+        private SVGSource(byte[] data, String hash, int width, int height) {
+            this.data = data;
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
         }
     }
 }
@@ -26,18 +26,36 @@
 
 package cc.polyfrost.oneconfig.internal.renderer;
 
+import cc.polyfrost.oneconfig.gui.OneConfigGui;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.renderer.font.Font;
 import cc.polyfrost.oneconfig.renderer.font.FontHelper;
 import cc.polyfrost.oneconfig.renderer.font.Fonts;
-import cc.polyfrost.oneconfig.utils.IOUtils;
+import org.lwjgl.nanovg.NVGColor;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
-import static org.lwjgl.nanovg.NanoVG.nvgCreateFontMem;
+import static org.lwjgl.nanovg.NanoVG.*;
 
 public class FontHelperImpl implements FontHelper {
+    /**
+     * The fonts and sizes used by {@link OneConfigGui}, rasterized ahead of time if {@link Preferences#prewarmFonts} is on.
+     */
+    private static final Font[] PREWARM_FONTS = {Fonts.REGULAR, Fonts.MEDIUM, Fonts.SEMIBOLD, Fonts.BOLD};
+    private static final float[] PREWARM_SIZES = {12f, 14f, 24f};
+    private static final String PREWARM_GLYPHS = buildPrewarmGlyphs();
+    private int prewarmStep = 0;
+    private final Map<Font, FontGlyphs> glyphs = new IdentityHashMap<>();
+    private int cachedGlyphs = 0;
+    private long atlasPixels = 0L;
+    private int frameGlyphMisses = 0;
+    private int lastFrameGlyphMisses = 0;
 
     /**
      * Load all fonts in the Fonts class
@@ -68,7 +86,7 @@ public class FontHelperImpl implements FontHelper {
         if (font.isLoaded()) return;
         int loaded = -1;
         try {
-            ByteBuffer buffer = IOUtils.resourceToByteBuffer(font.getFileName(), font.getClass());
+            ByteBuffer buffer = FontLoader.read(font);
             loaded = nvgCreateFontMem(vg, font.getName(), buffer, 0);
             font.setBuffer(buffer);
         } catch (IOException e) {
@@ -80,4 +98,104 @@ public class FontHelperImpl implements FontHelper {
             font.setLoaded(true);
         }
     }
+
+    /**
+     * @return If there are fonts and sizes left for {@link #prewarm(long, NVGColor)}
+     */
+    boolean needsPrewarm() {
+        return Preferences.prewarmFonts && prewarmStep < PREWARM_FONTS.length * PREWARM_SIZES.length;
+    }
+
+    /**
+     * Rasterize the common glyphs of one of the GUI fonts and sizes into the atlas, spreading the work over the first frames.
+     * The text is drawn fully transparent, NanoVG only has to put the glyphs in its atlas.
+     * Only call this in a frame without Minecraft scaling, otherwise the glyphs end up at the wrong size.
+     *
+     * @param vg    NanoVG context, in a frame
+     * @param color A color to draw with
+     */
+    void prewarm(long vg, NVGColor color) {
+        if (!needsPrewarm()) return;
+        Font font = PREWARM_FONTS[prewarmStep / PREWARM_SIZES.length];
+        float size = PREWARM_SIZES[prewarmStep % PREWARM_SIZES.length];
+        prewarmStep++;
+        if (!font.isLoaded()) return;
+        float scale = OneConfigGui.getScaleFactor();
+        nvgSave(vg);
+        nvgResetTransform(vg);
+        nvgScale(vg, scale, scale);
+        nvgFontSize(vg, size);
+        nvgFontFace(vg, font.getName());
+        nvgFillColor(vg, nvgRGBA((byte) 0, (byte) 0, (byte) 0, (byte) 0, color));
+        nvgText(vg, 0, -size * 2, PREWARM_GLYPHS);
+        nvgRestore(vg);
+        if (Preferences.DEBUG) trackGlyphs(font, size * scale, PREWARM_GLYPHS);
+    }
+
+    /**
+     * Count the glyphs of the text NanoVG has not rasterized yet, as an approximation of its glyph atlas.
+     *
+     * @param size The font size after scaling, which is what NanoVG rasterizes at
+     */
+    void trackGlyphs(Font font, float size, String text) {
+        int key = (int) (size * 10f);
+        BitSet seen = glyphs.computeIfAbsent(font, f -> new FontGlyphs()).get(key);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c <= ' ' || seen.get(c)) continue;
+            seen.set(c);
+            cachedGlyphs++;
+            frameGlyphMisses++;
+            // glyphs are roughly as tall as the font size and a bit narrower, plus padding
+            atlasPixels += (long) (size + 2) * (long) (size * 0.6f + 2);
+        }
+    }
+
+    void endFrame() {
+        lastFrameGlyphMisses = frameGlyphMisses;
+        frameGlyphMisses = 0;
+    }
+
+    @Override
+    public int getCachedGlyphs() {
+        return cachedGlyphs;
+    }
+
+    @Override
+    public long getEstimatedAtlasPixels() {
+        return atlasPixels;
+    }
+
+    @Override
+    public int getLastFrameGlyphMisses() {
+        return lastFrameGlyphMisses;
+    }
+
+    private static String buildPrewarmGlyphs() {
+        StringBuilder builder = new StringBuilder();
+        for (char c = '!'; c <= '~'; c++) builder.append(c);
+        for (char c = '\u00A1'; c <= '\u00FF'; c++) builder.append(c);
+        return builder.toString();
+    }
+
+    /**
+     * The glyphs seen for every size of a font, sizes are in tenths of a pixel like NanoVG's.
+     */
+    private static final class FontGlyphs {
+        private int[] sizes = new int[4];
+        private BitSet[] seen = new BitSet[4];
+        private int count = 0;
+
+        private BitSet get(int size) {
+            for (int i = 0; i < count; i++) {
+                if (sizes[i] == size) return seen[i];
+            }
+            if (count == sizes.length) {
+                sizes = Arrays.copyOf(sizes, count * 2);
+                seen = Arrays.copyOf(seen, count * 2);
+            }
+            sizes[count] = size;
+            return seen[count++] = new BitSet(256);
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+package cc.polyfrost.oneconfig.internal.renderer;
+
+import cc.polyfrost.oneconfig.renderer.font.Font;
+import cc.polyfrost.oneconfig.renderer.font.Fonts;
+import cc.polyfrost.oneconfig.utils.IOUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads the font files in the background during startup, so creating the NanoVG context doesn't have to.
+ * <p>
+ * This class does not use LWJGL, so it is loaded by the game class loader and has to be public to be used from
+ * {@link FontHelperImpl}.
+ */
+public final class FontLoader {
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Fonts");
+    private static final Map<Font, CompletableFuture<ByteBuffer>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Start reading every font in {@link Fonts}.
+     */
+    public static void preload() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("OneConfig Font Loader").setDaemon(true).build());
+        for (Field field : Fonts.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) || field.getType() != Font.class) continue;
+            try {
+                Font font = (Font) field.get(null);
+                if (font.isLoaded()) continue;
+                pending.computeIfAbsent(font, key -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return IOUtils.resourceToByteBuffer(key.getFileName(), key.getClass());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            } catch (IllegalAccessException e) {
+                LOGGER.error("Could not read font field " + field.getName(), e);
+            }
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Get the contents of a font file, waiting for it if it's still being read in the background.
+     */
+    public static ByteBuffer read(Font font) throws IOException {
+        CompletableFuture<ByteBuffer> future = pending.remove(font);
+        if (future != null) {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                LOGGER.warn("Failed to preload font " + font.getName() + ", retrying", e.getCause());
+            }
+        }
+        return IOUtils.resourceToByteBuffer(font.getFileName(), font.getClass());
+    }
+}
@@ -29,10 +29,12 @@ package cc.polyfrost.oneconfig.internal.renderer;
 import cc.polyfrost.oneconfig.config.data.InfoType;
 import cc.polyfrost.oneconfig.events.EventManager;
 import cc.polyfrost.oneconfig.events.event.FramebufferRenderEvent;
+import cc.polyfrost.oneconfig.events.event.RenderEvent;
 import cc.polyfrost.oneconfig.events.event.Stage;
 import cc.polyfrost.oneconfig.gui.OneConfigGui;
 import cc.polyfrost.oneconfig.internal.assets.Colors;
 import cc.polyfrost.oneconfig.internal.assets.SVGs;
+import cc.polyfrost.oneconfig.internal.config.Preferences;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
 import cc.polyfrost.oneconfig.libs.universal.UResolution;
@@ -48,6 +50,7 @@ import cc.polyfrost.oneconfig.utils.IOUtils;
 import cc.polyfrost.oneconfig.utils.InputHandler;
 import cc.polyfrost.oneconfig.utils.NetworkUtils;
 import cc.polyfrost.oneconfig.utils.color.ColorUtils;
+import cc.polyfrost.oneconfig.utils.gui.GuiUtils;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.nanovg.NVGColor;
 import org.lwjgl.nanovg.NVGPaint;
@@ -69,6 +72,26 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     private boolean drawing = false;
     private boolean goingToCancel = false;
 
+    /**
+     * Size of the scratch rings, must be a power of two. The largest primitive uses 2 colors and 1 paint at once.
+     */
+    private static final int SCRATCH_SIZE = 16;
+    private final NVGColor[] scratchColors = new NVGColor[SCRATCH_SIZE];
+    private final NVGPaint[] scratchPaints = new NVGPaint[SCRATCH_SIZE];
+    private final float[] scratchBounds = new float[4];
+    private final float[] scratchTransform = new float[6];
+    private float devicePixelRatio = 1f;
+    private int colorCursor = 0;
+    private int paintCursor = 0;
+    private int frameAllocations = 0;
+    private int scratchUses = 0;
+    private int lastFrameAllocations = 0;
+    private int lastFrameScratchUses = 0;
+    private long setupsFrame = -1L;
+    private int frameSetups = 0;
+    private int lastFrameSetups = 0;
+    private boolean prewarmDone = false;
+
     //nanovg
 
     public NanoVGHelperImpl() {
@@ -86,6 +109,19 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
                     }
                 }
             }
+
+            @Subscribe
+            private void onRender(RenderEvent event) {
+                if (event.stage != Stage.END || prewarmDone) return;
+                FontHelperImpl fontHelper = (FontHelperImpl) FontHelper.INSTANCE;
+                // once the GUI is open, it rasterizes what it needs itself
+                if (OneConfigGui.isOpen() || !fontHelper.needsPrewarm()) {
+                    prewarmDone = true;
+                    return;
+                }
+                // a frame of its own without Minecraft scaling, so the glyphs are rasterized at the GUI's sizes
+                setupAndDraw(vg -> fontHelper.prewarm(vg, scratchColor(0)));
+            }
         });
     }
 
@@ -121,12 +157,28 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     @Override
     public void setupAndDraw(int nvgFlags, boolean mcScaling, LongConsumer consumer) {
         drawing = true;
+        long frame = GuiUtils.getFrameCount();
+        if (frame != setupsFrame) {
+            lastFrameSetups = frameSetups;
+            lastFrameAllocations = frameAllocations;
+            lastFrameScratchUses = scratchUses;
+            frameSetups = 0;
+            frameAllocations = 0;
+            scratchUses = 0;
+            setupsFrame = frame;
+        }
+        frameSetups++;
         if (vg == -1) {
             vg = NanoVGGL2.nvgCreate(nvgFlags);
             if (vg == -1) {
                 throw new RuntimeException("Failed to create nvg context");
             }
             FontHelper.INSTANCE.initialize(vg);
+            for (int i = 0; i < SCRATCH_SIZE; i++) {
+                // these live as long as the context, so they are never freed
+                scratchColors[i] = NVGColor.calloc();
+                scratchPaints[i] = NVGPaint.calloc();
+            }
         }
 
         try {
@@ -138,14 +190,17 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         UGraphics.disableAlpha();
 
         if (mcScaling) {
-            nvgBeginFrame(vg, (float) UResolution.getScaledWidth(), (float) UResolution.getScaledHeight(), (float) UResolution.getScaleFactor());
+            devicePixelRatio = (float) UResolution.getScaleFactor();
+            nvgBeginFrame(vg, (float) UResolution.getScaledWidth(), (float) UResolution.getScaledHeight(), devicePixelRatio);
         } else {
+            devicePixelRatio = 1f;
             nvgBeginFrame(vg, UResolution.getWindowWidth(), UResolution.getWindowHeight(), 1);
         }
 
         consumer.accept(vg);
 
         nvgEndFrame(vg);
+        ((FontHelperImpl) FontHelper.INSTANCE).endFrame();
         UGraphics.enableAlpha();
         GL11.glPopAttrib();
 
@@ -174,9 +229,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawRect(long vg, float x, float y, float width, float height, int color) {
         nvgBeginPath(vg);
         nvgRect(vg, x, y, width, height);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgFill(vg);
-        nvgColor.free();
     }
 
     /**
@@ -194,9 +248,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawRoundedRect(long vg, float x, float y, float width, float height, int color, float radius) {
         nvgBeginPath(vg);
         nvgRoundedRect(vg, x, y, width, height, radius);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgFill(vg);
-        nvgColor.free();
     }
 
     /**
@@ -216,9 +269,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawRoundedRectVaried(long vg, float x, float y, float width, float height, int color, float radiusTL, float radiusTR, float radiusBR, float radiusBL) {
         nvgBeginPath(vg);
         nvgRoundedRectVarying(vg, x, y, width, height, radiusTL, radiusTR, radiusBR, radiusBL);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgFill(vg);
-        nvgColor.free();
     }
 
     /**
@@ -239,10 +291,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgRoundedRect(vg, x + thickness, y + thickness, width - thickness, height - thickness, radius);
         nvgStrokeWidth(vg, thickness + 0.5f);
         nvgPathWinding(vg, NVG_HOLE);
-        NVGColor nvgColor = color(vg, color);
-        nvgStrokeColor(vg, nvgColor);
+        nvgStrokeColor(vg, scratchColor(color));
         nvgStroke(vg);
-        nvgColor.free();
     }
 
     /**
@@ -258,17 +308,11 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public void drawGradientRect(long vg, float x, float y, float width, float height, int color, int color2, NanoVGHelper.GradientDirection direction) {
-        NVGPaint bg = NVGPaint.create();
         nvgBeginPath(vg);
         nvgRect(vg, x, y, width, height);
-        NVGColor nvgColor = color(vg, color);
-        NVGColor nvgColor2 = color(vg, color2);
         final float[] pts = GradientDirection.getValues(x, y, width, height, direction);
-        nvgFillPaint(vg, nvgLinearGradient(vg, pts[0], pts[1], pts[2], pts[3], nvgColor, nvgColor2, bg));
-        nvgFillPaint(vg, bg);
+        nvgFillPaint(vg, nvgLinearGradient(vg, pts[0], pts[1], pts[2], pts[3], scratchColor(color), scratchColor(color2), scratchPaint()));
         nvgFill(vg);
-        nvgColor.free();
-        nvgColor2.free();
     }
 
     /**
@@ -285,16 +329,11 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public void drawGradientRoundedRect(long vg, float x, float y, float width, float height, int color, int color2, float radius, NanoVGHelper.GradientDirection direction) {
-        NVGPaint bg = NVGPaint.create();
         nvgBeginPath(vg);
         nvgRoundedRect(vg, x, y, width, height, radius);
-        NVGColor nvgColor = color(vg, color);
-        NVGColor nvgColor2 = color(vg, color2);
         final float[] pts = GradientDirection.getValues(x, y, width, height, direction);
-        nvgFillPaint(vg, nvgLinearGradient(vg, pts[0], pts[1], pts[2], pts[3], nvgColor, nvgColor2, bg));
+        nvgFillPaint(vg, nvgLinearGradient(vg, pts[0], pts[1], pts[2], pts[3], scratchColor(color), scratchColor(color2), scratchPaint()));
         nvgFill(vg);
-        nvgColor.free();
-        nvgColor2.free();
     }
 
     /**
@@ -311,25 +350,15 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawHSBBox(long vg, float x, float y, float width, float height, int colorTarget) {
         drawRoundedRect(vg, x, y, width, height, colorTarget, 8f);
 
-        NVGPaint bg = NVGPaint.create();
         nvgBeginPath(vg);
         nvgRoundedRect(vg, x, y, width, height, 8f);
-        NVGColor nvgColor = color(vg, -1);
-        NVGColor nvgColor2 = color(vg, Colors.TRANSPARENT);
-        nvgFillPaint(vg, nvgLinearGradient(vg, x, y, x + width, y, nvgColor, nvgColor2, bg));
+        nvgFillPaint(vg, nvgLinearGradient(vg, x, y, x + width, y, scratchColor(-1), scratchColor(Colors.TRANSPARENT), scratchPaint()));
         nvgFill(vg);
-        nvgColor.free();
-        nvgColor2.free();
 
-        NVGPaint bg2 = NVGPaint.create();
         nvgBeginPath(vg);
         nvgRoundedRect(vg, x, y, width, height, 8f);
-        NVGColor nvgColor3 = color(vg, Colors.TRANSPARENT);
-        NVGColor nvgColor4 = color(vg, Colors.BLACK);
-        nvgFillPaint(vg, nvgLinearGradient(vg, x, y, x, y + height, nvgColor3, nvgColor4, bg2));
+        nvgFillPaint(vg, nvgLinearGradient(vg, x, y, x, y + height, scratchColor(Colors.TRANSPARENT), scratchColor(Colors.BLACK), scratchPaint()));
         nvgFill(vg);
-        nvgColor3.free();
-        nvgColor4.free();
     }
 
     /**
@@ -345,9 +374,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawCircle(long vg, float x, float y, float radius, int color) {
         nvgBeginPath(vg);
         nvgCircle(vg, x, y, radius);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgFill(vg);
-        nvgColor.free();
     }
 
     /**
@@ -364,9 +392,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     public void drawEllipse(long vg, float x, float y, float radiusX, float radiusY, int color) {
         nvgBeginPath(vg);
         nvgEllipse(vg, x, y, radiusX, radiusY);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgFill(vg);
-        nvgColor.free();
     }
 
     /**
@@ -386,10 +413,8 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgEllipse(vg, x, y, radiusX, radiusY);
         nvgStrokeWidth(vg, thickness + 0.5f);
         nvgPathWinding(vg, NVG_HOLE);
-        NVGColor nvgColor = color(vg, color);
-        nvgStrokeColor(vg, nvgColor);
+        nvgStrokeColor(vg, scratchColor(color));
         nvgStroke(vg);
-        nvgColor.free();
     }
 
     /**
@@ -410,9 +435,9 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgFontSize(vg, size);
         nvgFontFace(vg, font.getName());
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgText(vg, x, y, text);
-        nvgColor.free();
+        if (Preferences.DEBUG) trackGlyphs(vg, font, size, text);
     }
 
     /**
@@ -433,9 +458,9 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgFontSize(vg, size);
         nvgFontFace(vg, font.getName());
         nvgTextAlign(vg, NVG_ALIGN_CENTER | NVG_ALIGN_MIDDLE);
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgText(vg, x, y, text);
-        nvgColor.free();
+        if (Preferences.DEBUG) trackGlyphs(vg, font, size, text);
     }
 
     @Override
@@ -444,9 +469,9 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgFontSize(vg, size);
         nvgFontFace(vg, font.getName());
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE); // Align top because center is weird with wrapping
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgTextBox(vg, x, y, width, text);
-        nvgColor.free();
+        if (Preferences.DEBUG) trackGlyphs(vg, font, size, text);
     }
 
     /**
@@ -469,9 +494,9 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgFontFace(vg, font.getName());
         nvgTextLineHeight(vg, lineHeight);
         nvgTextAlign(vg, NVG_ALIGN_LEFT | NVG_ALIGN_MIDDLE); // Align top because center is weird with wrapping
-        NVGColor nvgColor = color(vg, color);
+        nvgFillColor(vg, scratchColor(color));
         nvgTextBox(vg, x, y, width, text);
-        nvgColor.free();
+        if (Preferences.DEBUG) trackGlyphs(vg, font, size, text);
     }
 
     @Override
@@ -495,7 +520,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public float getWrappedStringHeight(long vg, String text, float width, float fontSize, float lineHeight, Font font) {
-        float[] bounds = new float[4];
+        float[] bounds = scratchBounds;
         nvgFontSize(vg, fontSize);
         nvgFontFace(vg, font.getName());
         nvgTextLineHeight(vg, lineHeight);
@@ -505,7 +530,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public float getWrappedStringWidth(long vg, String text, float width, float fontSize, Font font) {
-        float[] bounds = new float[4];
+        float[] bounds = scratchBounds;
         nvgFontSize(vg, fontSize);
         nvgFontFace(vg, font.getName());
         nvgTextBoxBounds(vg, 0, 0, width, text, bounds);
@@ -514,7 +539,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public float getWrappedStringWidth(long vg, String text, float width, float fontSize, float lineHeight, Font font) {
-        float[] bounds = new float[4];
+        float[] bounds = scratchBounds;
         nvgFontSize(vg, fontSize);
         nvgFontFace(vg, font.getName());
         nvgTextLineHeight(vg, lineHeight);
@@ -559,16 +584,18 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public void drawImage(long vg, String filePath, float x, float y, float width, float height, Class<?> clazz) {
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadImage(vg, filePath, clazz)) {
-            NVGPaint imagePaint = NVGPaint.calloc();
-            int image = assetHelper.getImage(filePath);
+        drawImage(vg, filePath, AssetHelperImpl.DEFAULT_FLAGS, x, y, width, height, clazz);
+    }
+
+    private void drawImage(long vg, String filePath, int flags, float x, float y, float width, float height, Class<?> clazz) {
+        int image = pollImage(vg, filePath, flags, clazz, x, y, width, height, 0);
+        if (image > 0) {
+            NVGPaint imagePaint = scratchPaint();
             nvgBeginPath(vg);
             nvgImagePattern(vg, x, y, width, height, 0, image, 1, imagePaint);
             nvgRect(vg, x, y, width, height);
             nvgFillPaint(vg, imagePaint);
             nvgFill(vg);
-            imagePaint.free();
         }
     }
 
@@ -580,37 +607,44 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public void drawImage(long vg, String filePath, float x, float y, float width, float height, int color, Class<?> clazz) {
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadImage(vg, filePath, clazz)) {
-            NVGPaint imagePaint = NVGPaint.calloc();
-            int image = assetHelper.getImage(filePath);
+        drawImage(vg, filePath, AssetHelperImpl.DEFAULT_FLAGS, x, y, width, height, color, clazz);
+    }
+
+    private void drawImage(long vg, String filePath, int flags, float x, float y, float width, float height, int color, Class<?> clazz) {
+        int image = pollImage(vg, filePath, flags, clazz, x, y, width, height, 0);
+        if (image > 0) {
+            NVGPaint imagePaint = scratchPaint();
             nvgBeginPath(vg);
             nvgImagePattern(vg, x, y, width, height, 0, image, 1, imagePaint);
             drawImageCommon(vg, x, y, width, height, color, imagePaint);
-            imagePaint.free();
         }
     }
 
-    /**
-     * <b>Important:</b> You must free {@code imagePaint} yourself!
-     */
     private void drawImageCommon(long vg, float x, float y, float width, float height, int color, NVGPaint imagePaint) {
-        nvgRGBA((byte) (color >> 16 & 0xFF), (byte) (color >> 8 & 0xFF), (byte) (color & 0xFF), (byte) (color >> 24 & 0xFF), imagePaint.innerColor());
+        imagePaint.innerColor(scratchColor(color));
         nvgRect(vg, x, y, width, height);
         nvgFillPaint(vg, imagePaint);
         nvgFill(vg);
     }
 
+    /**
+     * Get an image without blocking the render thread, drawing a placeholder while it's still being decoded.
+     *
+     * @return The NanoVG image, or a value below 1 if it can't be drawn yet
+     */
+    private int pollImage(long vg, String filePath, int flags, Class<?> clazz, float x, float y, float width, float height, float radius) {
+        int image = ((AssetHelperImpl) AssetHelper.INSTANCE).pollImage(vg, filePath, flags, clazz);
+        if (image == AssetHelperImpl.LOADING) drawRoundedRect(vg, x, y, width, height, Colors.GRAY_400_40, radius);
+        return image;
+    }
+
     /**
      * Draws an image with the provided file path and parameters.
      *
      * @see NanoVGHelperImpl#drawImage(long, String, float, float, float, float)
      */
     public void drawImage(long vg, Image image, float x, float y, float width, float height) {
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadImage(vg, image)) {
-            drawImage(vg, image.filePath, x, y, width, height, image.getClass());
-        }
+        drawImage(vg, image.filePath, image.flags, x, y, width, height, image.getClass());
     }
 
     /**
@@ -620,10 +654,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public void drawImage(long vg, Image image, float x, float y, float width, float height, int color) {
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadImage(vg, image)) {
-            drawImage(vg, image.filePath, x, y, width, height, color, image.getClass());
-        }
+        drawImage(vg, image.filePath, image.flags, x, y, width, height, color, image.getClass());
     }
 
     /**
@@ -645,16 +676,18 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public void drawRoundImage(long vg, String filePath, float x, float y, float width, float height, float radius, Class<?> clazz) {
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadImage(vg, filePath, clazz)) {
-            NVGPaint imagePaint = NVGPaint.calloc();
-            int image = assetHelper.getImage(filePath);
+        drawRoundImage(vg, filePath, AssetHelperImpl.DEFAULT_FLAGS, x, y, width, height, radius, clazz);
+    }
+
+    private void drawRoundImage(long vg, String filePath, int flags, float x, float y, float width, float height, float radius, Class<?> clazz) {
+        int image = pollImage(vg, filePath, flags, clazz, x, y, width, height, radius);
+        if (image > 0) {
+            NVGPaint imagePaint = scratchPaint();
             nvgBeginPath(vg);
             nvgImagePattern(vg, x, y, width, height, 0, image, 1, imagePaint);
             nvgRoundedRect(vg, x, y, width, height, radius);
             nvgFillPaint(vg, imagePaint);
             nvgFill(vg);
-            imagePaint.free();
         }
     }
 
@@ -666,9 +699,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
     @Override
     @Deprecated
     public void drawRoundImage(long vg, Image image, float x, float y, float width, float height, float radius) {
-        if (AssetHelper.INSTANCE.loadImage(vg, image)) {
-            drawRoundImage(vg, image.filePath, x, y, width, height, radius, image.getClass());
-        }
+        drawRoundImage(vg, image.filePath, image.flags, x, y, width, height, radius, image.getClass());
     }
 
     /**
@@ -682,7 +713,7 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public float getTextWidth(long vg, String text, float fontSize, Font font) {
-        float[] bounds = new float[4];
+        float[] bounds = scratchBounds;
         nvgFontSize(vg, fontSize);
         nvgFontFace(vg, font.getName());
         return nvgTextBounds(vg, 0, 0, text, bounds);
@@ -704,11 +735,9 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
         nvgBeginPath(vg);
         nvgMoveTo(vg, x, y);
         nvgLineTo(vg, endX, endY);
-        NVGColor nvgColor = color(vg, color);
-        nvgStrokeColor(vg, nvgColor);
+        nvgStrokeColor(vg, scratchColor(color));
         nvgStrokeWidth(vg, width);
         nvgStroke(vg);
-        nvgColor.free();
     }
 
     /**
@@ -726,22 +755,19 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public void drawDropShadow(long vg, float x, float y, float w, float h, float blur, float spread, float cornerRadius) {
-        try (NVGPaint shadowPaint = NVGPaint.calloc();  // allocating memory to pass color to nanovg wrapper
-             NVGColor firstColor = NVGColor.calloc();  // allocating memory to pass color to nanovg wrapper
-             NVGColor secondColor = NVGColor.calloc()  // allocating memory to pass color to nanovg wrapper
-        ) {
-            fillNVGColorWithRGBA(0, 0, 0, 0.5f, firstColor); // filling allocated memory
-            fillNVGColorWithRGBA(0, 0, 0, 0, secondColor); // filling allocated memory
-
-            // creating gradient and put it to shadowPaint
-            nvgBoxGradient(vg, x - spread, y - spread, w + 2 * spread, h + 2 * spread, cornerRadius + spread, blur, firstColor, secondColor, shadowPaint);
-            nvgBeginPath(vg);
-            nvgRoundedRect(vg, x - spread - blur, y - spread - blur, w + 2 * spread + 2 * blur, h + 2 * spread + 2 * blur, cornerRadius + spread);
-            nvgRoundedRect(vg, x, y, w, h, cornerRadius);
-            nvgPathWinding(vg, NVG_HOLE);
-            nvgFillPaint(vg, shadowPaint);
-            nvgFill(vg);
-        }
+        NVGPaint shadowPaint = scratchPaint();
+        NVGColor firstColor = scratchColor(0);
+        NVGColor secondColor = scratchColor(0);
+        fillNVGColorWithRGBA(0, 0, 0, 0.5f, firstColor);
+
+        // creating gradient and put it to shadowPaint
+        nvgBoxGradient(vg, x - spread, y - spread, w + 2 * spread, h + 2 * spread, cornerRadius + spread, blur, firstColor, secondColor, shadowPaint);
+        nvgBeginPath(vg);
+        nvgRoundedRect(vg, x - spread - blur, y - spread - blur, w + 2 * spread + 2 * blur, h + 2 * spread + 2 * blur, cornerRadius + spread);
+        nvgRoundedRect(vg, x, y, w, h, cornerRadius);
+        nvgPathWinding(vg, NVG_HOLE);
+        nvgFillPaint(vg, shadowPaint);
+        nvgFill(vg);
     }
 
     /**
@@ -770,12 +796,66 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
      */
     @Override
     public NVGColor color(long vg, int color) {
+        frameAllocations++;
         NVGColor nvgColor = NVGColor.calloc();
         nvgRGBA((byte) (color >> 16 & 0xFF), (byte) (color >> 8 & 0xFF), (byte) (color & 0xFF), (byte) (color >> 24 & 0xFF), nvgColor);
         nvgFillColor(vg, nvgColor);
         return nvgColor;
     }
 
+    /**
+     * Fills the next color of the scratch ring with the provided ARGB color.
+     * <p>
+     * NanoVG copies colors by value into its own state, so the returned struct only has to stay valid until it
+     * has been passed to NanoVG. It must not be freed or kept around by the caller.
+     *
+     * @param color The color.
+     * @return a pooled {@link NVGColor} holding the color.
+     */
+    private NVGColor scratchColor(int color) {
+        NVGColor nvgColor = scratchColors[colorCursor];
+        colorCursor = (colorCursor + 1) & (SCRATCH_SIZE - 1);
+        scratchUses++;
+        nvgRGBA((byte) (color >> 16 & 0xFF), (byte) (color >> 8 & 0xFF), (byte) (color & 0xFF), (byte) (color >> 24 & 0xFF), nvgColor);
+        return nvgColor;
+    }
+
+    /**
+     * @return the next {@link NVGPaint} of the scratch ring. The same rules as {@link #scratchColor(int)} apply.
+     */
+    private NVGPaint scratchPaint() {
+        NVGPaint paint = scratchPaints[paintCursor];
+        paintCursor = (paintCursor + 1) & (SCRATCH_SIZE - 1);
+        scratchUses++;
+        return paint;
+    }
+
+    /**
+     * Count the glyphs NanoVG has to rasterize, at the size it rasterizes them: scaled by the current transform and pixel ratio.
+     */
+    private void trackGlyphs(long vg, Font font, float size, String text) {
+        float[] t = scratchTransform;
+        nvgCurrentTransform(vg, t);
+        float scale = ((float) Math.sqrt(t[0] * t[0] + t[2] * t[2]) + (float) Math.sqrt(t[1] * t[1] + t[3] * t[3])) * 0.5f;
+        scale = Math.min(Math.round(scale * 100f) / 100f, 4f) * devicePixelRatio;
+        ((FontHelperImpl) FontHelper.INSTANCE).trackGlyphs(font, size * scale, text);
+    }
+
+    @Override
+    public int getLastFrameAllocations() {
+        return lastFrameAllocations;
+    }
+
+    @Override
+    public int getLastFrameScratchUses() {
+        return lastFrameScratchUses;
+    }
+
+    @Override
+    public int getLastFrameSetups() {
+        return lastFrameSetups;
+    }
+
     /**
      * Scales all rendering by the provided scale.
      *
@@ -850,18 +930,15 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public void drawSvg(long vg, String filePath, float x, float y, float width, float height, float scale, Class<?> clazz) {
-        float w = width * scale;
-        float h = height * scale;
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadSVG(vg, filePath, w, h, clazz)) {
-            NVGPaint imagePaint = NVGPaint.calloc();
-            int image = assetHelper.getSVG(filePath, w, h);
+        // SVGs are mostly small icons, so nothing is drawn while they're rasterized rather than a placeholder box
+        int image = ((AssetHelperImpl) AssetHelper.INSTANCE).pollSVG(vg, filePath, width * scale, height * scale, AssetHelperImpl.DEFAULT_FLAGS);
+        if (image > 0) {
+            NVGPaint imagePaint = scratchPaint();
             nvgBeginPath(vg);
             nvgImagePattern(vg, x, y, width, height, 0, image, 1, imagePaint);
             nvgRect(vg, x, y, width, height);
             nvgFillPaint(vg, imagePaint);
             nvgFill(vg);
-            imagePaint.free();
         }
     }
 
@@ -916,16 +993,12 @@ public final class NanoVGHelperImpl implements NanoVGHelper {
 
     @Override
     public void drawSvg(long vg, String filePath, float x, float y, float width, float height, int color, float scale, Class<?> clazz) {
-        float w = width * scale;
-        float h = height * scale;
-        AssetHelper assetHelper = AssetHelper.INSTANCE;
-        if (assetHelper.loadSVG(vg, filePath, w, h, clazz)) {
-            NVGPaint imagePaint = NVGPaint.calloc();
-            int image = assetHelper.getSVG(filePath, w, h);
+        int image = ((AssetHelperImpl) AssetHelper.INSTANCE).pollSVG(vg, filePath, width * scale, height * scale, AssetHelperImpl.DEFAULT_FLAGS);
+        if (image > 0) {
+            NVGPaint imagePaint = scratchPaint();
             nvgBeginPath(vg);
             nvgImagePattern(vg, x, y, width, height, 0, image, 1, imagePaint);
             drawImageCommon(vg, x, y, width, height, color, imagePaint);
-            imagePaint.free();
         }
     }
 
@@ -0,0 +1,298 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+package cc.polyfrost.oneconfig.internal.renderer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-disk cache of rasterized SVGs, so icons don't have to be parsed and rasterized again every launch.
+ * Every entry is a raw RGBA blob named after the hash of the SVG source and the raster size, which is memory-mapped
+ * and handed straight to NanoVG. The cache is capped in size and evicts the least recently used entries.
+ * <p>
+ * This class does not use LWJGL, so it is loaded by the game class loader and has to be public to be used from
+ * {@link AssetHelperImpl}.
+ *
+ * @see AssetHelperImpl
+ */
+public final class SVGRasterCache {
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig SVG Cache");
+    private static final String EXTENSION = ".rgba";
+    private static final String INDEX_FILE = "index.txt";
+    private final File directory;
+    private final long maxSize;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("OneConfig SVG Cache").setDaemon(true).build());
+    /**
+     * Cached blobs in least recently used order, file name to size in bytes.
+     */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    /**
+     * Intrinsic size of every known SVG source, so a cache hit doesn't need to parse the SVG.
+     */
+    private final Map<String, int[]> sourceSizes = new ConcurrentHashMap<>();
+    private final Map<String, ByteBuffer> preloaded = new ConcurrentHashMap<>();
+    private long totalSize = 0L;
+    private volatile boolean enabled = true;
+
+    public SVGRasterCache(File directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+        executor.submit(this::scan);
+    }
+
+    /**
+     * @param hash The hash of the SVG source
+     * @return The intrinsic width and height of the SVG, or null if it isn't known yet
+     */
+    @Nullable
+    public int[] getSourceSize(String hash) {
+        return sourceSizes.get(hash);
+    }
+
+    public void putSourceSize(String hash, int width, int height) {
+        if (sourceSizes.put(hash, new int[]{width, height}) == null) executor.submit(this::writeIndex);
+    }
+
+    /**
+     * Get a cached raster.
+     *
+     * @return A direct buffer of width * height RGBA pixels, or null if it isn't cached
+     */
+    @Nullable
+    public ByteBuffer get(String hash, int width, int height) {
+        String name = getFileName(hash, width, height);
+        ByteBuffer buffer = preloaded.remove(name);
+        synchronized (entries) {
+            if (entries.get(name) == null) return null;
+        }
+        if (buffer == null) buffer = map(name, width, height);
+        if (buffer != null) executor.submit(() -> touch(name));
+        return buffer;
+    }
+
+    /**
+     * Store a raster, evicting the least recently used entries if the cache grows over its maximum size.
+     * If the file can't be replaced (it may still be mapped, which blocks replacing it on Windows), the existing
+     * entry is kept.
+     *
+     * @param pixels A buffer of width * height RGBA pixels, its position is left untouched
+     */
+    public void put(String hash, int width, int height, ByteBuffer pixels) {
+        if (!enabled) return;
+        String name = getFileName(hash, width, height);
+        Path path = new File(directory, name).toPath();
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(directory.toPath(), name, ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer data = pixels.duplicate();
+                data.limit(data.position() + width * height * 4);
+                while (data.hasRemaining()) channel.write(data);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to cache SVG raster " + name, e);
+            if (temp != null) temp.toFile().delete();
+            return;
+        }
+        synchronized (entries) {
+            Long previous = entries.put(name, (long) width * height * 4);
+            totalSize += (long) width * height * 4 - (previous == null ? 0L : previous);
+            evict();
+        }
+    }
+
+    /**
+     * Memory-map every cached raster of an SVG in the background, so the first draw only has to upload it.
+     */
+    public void preload(String hash) {
+        List<String> names = new ArrayList<>();
+        synchronized (entries) {
+            for (String name : entries.keySet()) {
+                if (name.startsWith(hash + "-")) names.add(name);
+            }
+        }
+        for (String name : names) {
+            int[] size = parseSize(name);
+            if (size == null || preloaded.containsKey(name)) continue;
+            ByteBuffer buffer = map(name, size[0], size[1]);
+            if (buffer == null) continue;
+            // touch every page now, so the first draw doesn't fault them in on the render thread
+            for (int i = 0; i < buffer.capacity(); i += 4096) buffer.get(i);
+            preloaded.put(name, buffer);
+        }
+    }
+
+    /**
+     * Run a task on the cache thread, after the cache has been scanned.
+     */
+    public void submit(Runnable task) {
+        executor.submit(task);
+    }
+
+    private void scan() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            LOGGER.warn("Could not create SVG cache directory {}, caching disabled", directory);
+            enabled = false;
+            return;
+        }
+        readIndex();
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        List<File> blobs = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(EXTENSION)) blobs.add(file);
+            else if (file.getName().endsWith(".tmp")) file.delete();
+        }
+        blobs.sort(Comparator.comparingLong(File::lastModified));
+        synchronized (entries) {
+            for (File file : blobs) {
+                Long previous = entries.put(file.getName(), file.length());
+                totalSize += file.length() - (previous == null ? 0L : previous);
+            }
+            evict();
+        }
+        LOGGER.debug("SVG cache contains {} rasters ({} KB)", blobs.size(), totalSize / 1024);
+    }
+
+    /**
+     * Delete least recently used entries until the cache fits its maximum size. Mapped buffers can't be unmapped
+     * explicitly, and on Windows a mapped file can't be deleted. Such entries stay counted and are retried on the
+     * next eviction.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalSize > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            preloaded.remove(entry.getKey());
+            if (!delete(entry.getKey())) continue;
+            totalSize -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    private boolean delete(String name) {
+        File file = new File(directory, name);
+        return file.delete() || !file.exists();
+    }
+
+    @Nullable
+    private ByteBuffer map(String name, int width, int height) {
+        long size = (long) width * height * 4;
+        Path path = new File(directory, name).toPath();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() == size) return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read cached SVG raster " + name, e);
+        }
+        synchronized (entries) {
+            if (delete(name)) {
+                Long removed = entries.remove(name);
+                if (removed != null) totalSize -= removed;
+            }
+        }
+        return null;
+    }
+
+    private void touch(String name) {
+        try {
+            Files.setLastModifiedTime(new File(directory, name).toPath(), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void readIndex() {
+        File index = new File(directory, INDEX_FILE);
+        if (!index.isFile()) return;
+        try {
+            for (String line : Files.readAllLines(index.toPath(), StandardCharsets.UTF_8)) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) continue;
+                try {
+                    sourceSizes.put(parts[0], new int[]{Integer.parseInt(parts[1]), Integer.parseInt(parts[2])});
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read SVG cache index", e);
+        }
+    }
+
+    private void writeIndex() {
+        if (!enabled) return;
+        try {
+            Path temp = Files.createTempFile(directory.toPath(), INDEX_FILE, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, int[]> entry : sourceSizes.entrySet()) {
+                    writer.write(entry.getKey() + " " + entry.getValue()[0] + " " + entry.getValue()[1]);
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, new File(directory, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write SVG cache index", e);
+        }
+    }
+
+    private static String getFileName(String hash, int width, int height) {
+        return hash + "-" + width + "x" + height + EXTENSION;
+    }
+
+    @Nullable
+    private static int[] parseSize(String name) {
+        int dash = name.lastIndexOf('-');
+        int x = name.lastIndexOf('x');
+        if (dash < 0 || x < dash) return null;
+        try {
+            return new int[]{Integer.parseInt(name.substring(dash + 1, x)), Integer.parseInt(name.substring(x + 1, name.length() - EXTENSION.length()))};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -27,6 +27,7 @@
 package cc.polyfrost.oneconfig.platform;
 
 import cc.polyfrost.oneconfig.libs.universal.UMatrixStack;
+import org.jetbrains.annotations.Nullable;
 
 public interface GLPlatform {
     void drawRect(float x, float y, float x2, float y2, int color);
@@ -40,4 +41,64 @@ public interface GLPlatform {
     float drawText(UMatrixStack matrixStack, String text, float x, float y, int color, boolean shadow);
 
     int getStringWidth(String text);
+
+    /**
+     * Draws the outline of {@link cc.polyfrost.oneconfig.renderer.TextRenderer#drawBorderedText}: the text drawn
+     * at every half pixel offset up to one pixel away, except the diagonals. Platforms may draw it as a single batch.
+     *
+     * @param text  The text, without color codes
+     * @param color The color of the outline
+     * @return The sum of the end x positions of every offset pass, which is what bordered text has always returned
+     */
+    default float drawTextBorder(String text, float x, float y, int color) {
+        float end = 0f;
+        for (int xOff = -2; xOff <= 2; xOff++) {
+            for (int yOff = -2; yOff <= 2; yOff++) {
+                if (xOff * xOff != yOff * yOff) {
+                    end += drawText(text, (xOff / 2f) + x, (yOff / 2f) + y, color, false);
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Creates an offscreen render target that can be drawn into once and then drawn on screen as a single textured quad.
+     *
+     * @param width  The width in pixels.
+     * @param height The height in pixels.
+     * @return The render target, or null if framebuffers are not supported.
+     */
+    @Nullable
+    RenderTarget createRenderTarget(int width, int height);
+
+    /**
+     * An offscreen framebuffer used to cache rendering that rarely changes.
+     * The contents are stored with premultiplied alpha.
+     */
+    interface RenderTarget {
+        int getWidth();
+
+        int getHeight();
+
+        void resize(int width, int height);
+
+        /**
+         * Clears and binds the render target, and maps the given region (in scaled screen coordinates) onto it,
+         * so that anything drawn at its regular screen position ends up in the render target.
+         */
+        void beginWrite(float x, float y, float width, float height);
+
+        /**
+         * Rebinds the main framebuffer and restores the projection changed by {@link #beginWrite(float, float, float, float)}.
+         */
+        void endWrite();
+
+        /**
+         * Draws the contents of the render target at the given position, in scaled screen coordinates.
+         */
+        void draw(float x, float y, float width, float height);
+
+        void delete();
+    }
 }
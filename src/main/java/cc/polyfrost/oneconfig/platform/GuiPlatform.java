@@ -31,5 +31,6 @@ public interface GuiPlatform {
     void setCurrentScreen(Object screen);
     boolean isInChat();
     boolean isInDebug();
+    boolean isWindowFocused();
     void playClickSound();
 }
@@ -562,6 +562,30 @@ public interface NanoVGHelper {
 
     void rotate(long vg, double angle);
 
+    /**
+     * @return the amount of {@link #setupAndDraw} frames set up during the last rendered game frame. Every one of them
+     * saves and restores all GL attributes and flushes its own draw calls, so fewer is better.
+     */
+    default int getLastFrameSetups() {
+        return 0;
+    }
+
+    /**
+     * @return the amount of native color/paint allocations made by all {@link #setupAndDraw} frames during the last
+     * rendered game frame. In steady state this only counts calls to {@link #color(long, int)}, which has to hand out an owned struct.
+     */
+    default int getLastFrameAllocations() {
+        return 0;
+    }
+
+    /**
+     * @return the amount of colors/paints the primitives took from the reused scratch structs during the last rendered
+     * game frame, i.e. the amount of native allocations they would have made otherwise.
+     */
+    default int getLastFrameScratchUses() {
+        return 0;
+    }
+
     enum TextType {
         NONE, SHADOW, FULL;
 
@@ -26,39 +26,122 @@
 
 package cc.polyfrost.oneconfig.renderer;
 
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.ResourcesReloadEvent;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.UGraphics;
 import cc.polyfrost.oneconfig.platform.Platform;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 public class TextRenderer {
     private static final Pattern regex = Pattern.compile("(?i)\u00A7[0-9a-f]");
     private static boolean drawingBorder = false;
+    private static final int WIDTH_CACHE_SIZE = 1024;
+    private static final LinkedHashMap<String, Float> widthCache = new LinkedHashMap<String, Float>(WIDTH_CACHE_SIZE / 4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Float> eldest) {
+            return size() > WIDTH_CACHE_SIZE;
+        }
+    };
+    private static final int STRIPPED_CACHE_SIZE = 256;
+    private static final LinkedHashMap<String, String> strippedCache = new LinkedHashMap<String, String>(STRIPPED_CACHE_SIZE / 4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > STRIPPED_CACHE_SIZE;
+        }
+    };
+
+    static {
+        EventManager.INSTANCE.register(new Object() {
+            @Subscribe
+            private void onResourcesReload(ResourcesReloadEvent event) {
+                clearWidthCache();
+            }
+        });
+    }
 
     public static int drawBorderedText(String text, float x, float y, int color, int opacity) {
-        String noColors = regex.matcher(text).replaceAll("\u00A7r");
         drawingBorder = true;
         int yes = 0;
         if (opacity / 4 > 3) {
-            for (int xOff = -2; xOff <= 2; xOff++) {
-                for (int yOff = -2; yOff <= 2; yOff++) {
-                    if (xOff * xOff != yOff * yOff) {
-                        yes += Platform.getGLPlatform().drawText(
-                                noColors, (xOff / 2f) + x, (yOff / 2f) + y, (opacity / 4) << 24, false
-                        );
-                    }
-                }
-            }
+            yes += (int) Platform.getGLPlatform().drawTextBorder(stripColors(text), x, y, (opacity / 4) << 24);
         }
         yes += (int) Platform.getGLPlatform().drawText(text, x, y, color, false);
         drawingBorder = false;
         return yes;
     }
 
+    /**
+     * Replace the color codes of a string with reset codes, so the border of bordered text is drawn in a single color.
+     * Results are cached, since HUDs draw the same lines every frame.
+     */
+    private static String stripColors(String text) {
+        if (text.indexOf('\u00A7') == -1) return text;
+        synchronized (strippedCache) {
+            String stripped = strippedCache.get(text);
+            if (stripped == null) {
+                stripped = regex.matcher(text).replaceAll("\u00A7r");
+                strippedCache.put(text, stripped);
+            }
+            return stripped;
+        }
+    }
+
     public static float getStringWidth(String text) {
         return Platform.getGLPlatform().getStringWidth(text);
     }
 
+    /**
+     * Get the width of a string, like {@link #getStringWidth(String)}. Results are cached (with a bounded LRU) until
+     * the resources are reloaded, so this is cheap to call every frame for text that rarely changes.
+     *
+     * @param text The text
+     * @return The width of the text
+     */
+    public static float getCachedStringWidth(String text) {
+        synchronized (widthCache) {
+            return getCachedWidth(text);
+        }
+    }
+
+    /**
+     * Get the width of the widest of the given lines, with the same cache as {@link #getCachedStringWidth(String)}.
+     *
+     * @param lines The lines
+     * @return The width of the widest line, or 0 if there are no lines
+     */
+    public static float getMaxStringWidth(List<String> lines) {
+        float max = 0;
+        synchronized (widthCache) {
+            for (int i = 0, size = lines.size(); i < size; i++) {
+                max = Math.max(max, getCachedWidth(lines.get(i)));
+            }
+        }
+        return max;
+    }
+
+    private static float getCachedWidth(String text) {
+        Float width = widthCache.get(text);
+        if (width == null) {
+            width = getStringWidth(text);
+            widthCache.put(text, width);
+        }
+        return width;
+    }
+
+    /**
+     * Clears the cache used by {@link #getCachedStringWidth(String)}. This is done automatically when resources are reloaded.
+     */
+    public static void clearWidthCache() {
+        synchronized (widthCache) {
+            widthCache.clear();
+        }
+    }
+
     public static void drawScaledString(String text, float x, float y, int color, TextType type, float scale) {
         UGraphics.GL.pushMatrix();
         UGraphics.GL.scale(scale, scale, 1);
@@ -83,8 +166,10 @@ public class TextRenderer {
     public enum TextType {
         NONE, SHADOW, FULL;
 
+        private static final TextType[] VALUES = values();
+
         public static TextType toType(int type) {
-            return values()[type];
+            return VALUES[type];
         }
     }
 }
@@ -27,6 +27,11 @@
 package cc.polyfrost.oneconfig.renderer.asset;
 
 import cc.polyfrost.oneconfig.renderer.LwjglManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface AssetHelper {
     AssetHelper INSTANCE = LwjglManager.INSTANCE.getAssetHelper();
@@ -124,13 +129,22 @@ public interface AssetHelper {
     /**
      * Get a loaded assets from the cache.
      * <p><b>Requires the assets to have been loaded first.</b></p>
+     * Textures that haven't been drawn for a while can be unloaded to stay within the texture memory budget, so
+     * don't keep the result across frames. Call {@link #loadImage(long, String, Class)} again after a miss.
      *
      * @param fileName The name of the file to load.
-     * @return The assets
+     * @return The assets, or -1 if it isn't loaded
      * @see AssetHelper#loadImage(long, String, Class)
      */
     int getImage(String fileName);
 
+    /**
+     * Get a loaded assets and its data from the cache. The same rules as {@link #getImage(String)} apply.
+     *
+     * @param fileName The name of the file to load.
+     * @return The assets, or null if it isn't loaded
+     */
+    @Nullable
     NVGAsset getNVGImage(String fileName);
 
     /**
@@ -154,13 +168,22 @@ public interface AssetHelper {
     /**
      * Get a loaded SVG from the cache.
      * <p><b>Requires the SVG to have been loaded first.</b></p>
+     * Textures that haven't been drawn for a while can be unloaded to stay within the texture memory budget, so
+     * don't keep the result across frames. Call {@link #loadSVG(long, String, float, float, Class)} again after a miss.
      *
      * @param fileName The name of the file to load.
-     * @return The SVG
+     * @return The SVG, or -1 if it isn't loaded
      * @see AssetHelper#loadSVG(long, String, float, float, Class)
      */
     int getSVG(String fileName, float width, float height);
 
+    /**
+     * Get a loaded SVG and its data from the cache. The same rules as {@link #getSVG(String, float, float)} apply.
+     *
+     * @param fileName The name of the file to load.
+     * @return The SVG, or null if it isn't loaded
+     */
+    @Nullable
     NVGAsset getNVGSVG(String fileName);
 
     /**
@@ -180,4 +203,66 @@ public interface AssetHelper {
      * @param vg The NanoVG context.
      */
     void clearSVGs(long vg);
+
+    /**
+     * Decode an image in the background, so drawing it later only has to upload it to the GPU.
+     *
+     * @param fileName The name of the file to load.
+     * @param clazz    The class to use for loading the resource.
+     * @return A future completing with whether the image could be decoded.
+     */
+    default CompletableFuture<Boolean> prefetchImage(String fileName, Class<?> clazz) {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * Decode an image in the background, so drawing it later only has to upload it to the GPU.
+     *
+     * @param image The Image
+     * @return A future completing with whether the image could be decoded.
+     */
+    default CompletableFuture<Boolean> prefetchImage(Image image) {
+        return prefetchImage(image.filePath, image.getClass());
+    }
+
+    /**
+     * Rasterize an SVG in the background, so drawing it later only has to upload it to the GPU.
+     * The size has to match the size it will be drawn at, including the GUI scale.
+     *
+     * @param fileName The name of the file to load.
+     * @param width    The width of the SVG.
+     * @param height   The height of the SVG.
+     * @param clazz    The class to use for loading the resource.
+     * @return A future completing with whether the SVG could be rasterized.
+     */
+    default CompletableFuture<Boolean> prefetchSVG(String fileName, float width, float height, Class<?> clazz) {
+        return CompletableFuture.completedFuture(false);
+    }
+
+    /**
+     * Rasterize an SVG in the background, so drawing it later only has to upload it to the GPU.
+     * The size has to match the size it will be drawn at, including the GUI scale.
+     *
+     * @param svg    The SVG
+     * @param width  The width of the SVG.
+     * @param height The height of the SVG.
+     * @return A future completing with whether the SVG could be rasterized.
+     */
+    default CompletableFuture<Boolean> prefetchSVG(SVG svg, float width, float height) {
+        return prefetchSVG(svg.filePath, width, height, svg.getClass());
+    }
+
+    /**
+     * @return The estimated video memory used by all loaded images and SVGs, in bytes.
+     */
+    default long getTextureMemoryUsage() {
+        return 0L;
+    }
+
+    /**
+     * @return The estimated video memory used by every loaded image and SVG, in bytes, least recently drawn first.
+     */
+    default Map<String, Long> getTextureMemoryUsageByAsset() {
+        return Collections.emptyMap();
+    }
 }
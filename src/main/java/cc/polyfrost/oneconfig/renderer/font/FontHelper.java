@@ -19,4 +19,31 @@ public interface FontHelper {
      * @param font The font to be loaded
      */
     void loadFont(long vg, Font font);
+
+    /**
+     * Only counted in debug mode.
+     *
+     * @return The amount of glyphs in the NanoVG glyph atlas, approximately
+     */
+    default int getCachedGlyphs() {
+        return 0;
+    }
+
+    /**
+     * Only counted in debug mode.
+     *
+     * @return The area of the NanoVG glyph atlas in use, in pixels, approximately
+     */
+    default long getEstimatedAtlasPixels() {
+        return 0L;
+    }
+
+    /**
+     * Only counted in debug mode.
+     *
+     * @return The amount of glyphs NanoVG had to rasterize during the last finished frame
+     */
+    default int getLastFrameGlyphMisses() {
+        return 0;
+    }
 }
@@ -26,39 +26,26 @@
 
 package cc.polyfrost.oneconfig.utils;
 
-import cc.polyfrost.oneconfig.events.EventManager;
-import cc.polyfrost.oneconfig.events.event.RenderEvent;
-import cc.polyfrost.oneconfig.events.event.Stage;
-import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
-
 /**
  * Schedules a Runnable to be called after a certain amount of RENDER ticks (frames).
  *
  * If the amount of ticks is below 1, the Runnable will be called immediately.
+ *
+ * @see TickScheduler#afterFrames(int, Runnable)
  */
 public class RenderTickDelay {
-    private final Runnable function;
-    private int delay;
+    private final TickScheduler.Task task;
 
     public RenderTickDelay(Runnable function, int ticks) {
-        if (ticks < 1) {
-            function.run();
-        } else {
-            EventManager.INSTANCE.register(this);
-            delay = ticks;
-        }
-        this.function = function;
+        task = TickScheduler.afterFrames(ticks, function);
     }
 
-    @Subscribe
-    protected void onTick(RenderEvent event) {
-        if (event.stage == Stage.START) {
-            // Delay expired
-            if (delay < 1) {
-                function.run();
-                EventManager.INSTANCE.unregister(this);
-            }
-            delay--;
-        }
+    /**
+     * Cancels the delay if the Runnable has not been called yet.
+     *
+     * @return If the delay was cancelled
+     */
+    public boolean cancel() {
+        return task.cancel();
     }
 }
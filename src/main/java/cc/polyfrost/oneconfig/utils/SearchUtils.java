@@ -27,30 +27,145 @@
 package cc.polyfrost.oneconfig.utils;
 
 import cc.polyfrost.oneconfig.internal.config.Preferences;
-import org.apache.commons.lang3.StringUtils;
 
-import java.util.Locale;
+import java.util.BitSet;
+import java.util.List;
 
 /**
- * Based on <a href="https://www.baeldung.com/java-levenshtein-distance">https://www.baeldung.com/java-levenshtein-distance</a>
+ * Fuzzy matching for searching through mods and options.
+ * <p>
+ * Distances are computed case-insensitively with a banded Levenshtein algorithm that gives up as soon as the
+ * distance is known to exceed the search distance, using rows that are reused per thread instead of allocated per call.
  */
 public class SearchUtils {
+    private static final ThreadLocal<int[][]> rows = ThreadLocal.withInitial(() -> new int[2][32]);
 
     public static boolean isSimilar(String s1, String s2) {
         return isSimilar(s1, s2, Preferences.searchDistance);
     }
 
+    /**
+     * @param s1             The text to search in, e.g. the name of an option
+     * @param s2             The search query
+     * @param searchDistance The maximum edit distance between the query and the text, or one of its words
+     * @return If the query is contained in, or is close enough to, the text or one of its words
+     */
     public static boolean isSimilar(String s1, String s2, int searchDistance) {
-        s1 = s1.toLowerCase(Locale.ENGLISH);
-        s2 = s2.toLowerCase(Locale.ENGLISH);
-        if (s1.length() <= searchDistance) {
-            return s1.contains(s2);
+        int length = s1.length();
+        if (length <= searchDistance) {
+            return contains(s1, 0, length, s2);
         }
-        boolean similar = false;
-        for (String a : StringUtils.split(s1)) {
-            similar = a.contains(s2) || StringUtils.getLevenshteinDistance(a, s2) <= searchDistance;
-            if (similar) break;
+        int wordStart = -1;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || Character.isWhitespace(s1.charAt(i))) {
+                if (wordStart == -1) continue;
+                if (contains(s1, wordStart, i, s2) || distance(s1, wordStart, i, s2, searchDistance) <= searchDistance) {
+                    return true;
+                }
+                wordStart = -1;
+            } else if (wordStart == -1) {
+                wordStart = i;
+            }
         }
-        return similar || s1.contains(s2) || StringUtils.getLevenshteinDistance(s1, s2) <= searchDistance;
+        return contains(s1, 0, length, s2) || distance(s1, 0, length, s2, searchDistance) <= searchDistance;
+    }
+
+    /**
+     * Match one query against many texts.
+     *
+     * @param query          The search query
+     * @param texts          The texts to search in
+     * @param searchDistance The maximum edit distance, see {@link #isSimilar(String, String, int)}
+     * @return The indices of the texts that match the query
+     */
+    public static BitSet findSimilar(String query, List<String> texts, int searchDistance) {
+        BitSet result = new BitSet(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            if (isSimilar(texts.get(i), query, searchDistance)) result.set(i);
+        }
+        return result;
+    }
+
+    /**
+     * Match one query against many texts, using {@link Preferences#searchDistance}.
+     *
+     * @see #findSimilar(String, List, int)
+     */
+    public static BitSet findSimilar(String query, List<String> texts) {
+        return findSimilar(query, texts, Preferences.searchDistance);
+    }
+
+    /**
+     * Case-insensitive Levenshtein distance, bounded by a threshold.
+     *
+     * @param s1        The first string
+     * @param s2        The second string
+     * @param threshold The largest distance of interest
+     * @return The distance, or -1 if it is larger than the threshold
+     */
+    public static int getLevenshteinDistance(CharSequence s1, CharSequence s2, int threshold) {
+        int distance = distance(s1, 0, s1.length(), s2, threshold);
+        return distance > threshold ? -1 : distance;
+    }
+
+    /**
+     * @return If {@code s1[from, to)} contains {@code s2}, ignoring case
+     */
+    private static boolean contains(CharSequence s1, int from, int to, CharSequence s2) {
+        int length = s2.length();
+        for (int start = from; start <= to - length; start++) {
+            int i = 0;
+            while (i < length && equalsIgnoreCase(s1.charAt(start + i), s2.charAt(i))) i++;
+            if (i == length) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return The distance between {@code s1[from, to)} and {@code s2}, or {@code threshold + 1} if it is larger than the threshold
+     */
+    private static int distance(CharSequence s1, int from, int to, CharSequence s2, int threshold) {
+        int n = to - from;
+        int m = s2.length();
+        int limit = threshold + 1;
+        if (threshold < 0 || Math.abs(n - m) > threshold) return limit;
+        if (n == 0) return m;
+        if (m == 0) return n;
+
+        int[][] buffers = rows.get();
+        if (buffers[0].length <= m) {
+            buffers = new int[2][m + 1];
+            rows.set(buffers);
+        }
+        int[] previous = buffers[0];
+        int[] current = buffers[1];
+        for (int j = 0; j <= m; j++) previous[j] = j <= threshold ? j : limit;
+
+        for (int i = 1; i <= n; i++) {
+            char c = s1.charAt(from + i - 1);
+            // only cells within threshold of the diagonal can still be within the threshold
+            int min = Math.max(1, i - threshold);
+            int max = Math.min(m, i + threshold);
+            current[0] = i <= threshold ? i : limit;
+            if (min > 1) current[min - 1] = limit;
+            int rowMin = min == 1 ? current[0] : limit;
+            for (int j = min; j <= max; j++) {
+                int cost = equalsIgnoreCase(c, s2.charAt(j - 1)) ? 0 : 1;
+                int value = Math.min(Math.min(current[j - 1], previous[j]) + 1, previous[j - 1] + cost);
+                if (value > limit) value = limit;
+                current[j] = value;
+                if (value < rowMin) rowMin = value;
+            }
+            if (max < m) current[max + 1] = limit;
+            if (rowMin > threshold) return limit;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+
+    private static boolean equalsIgnoreCase(char a, char b) {
+        return a == b || Character.toLowerCase(a) == Character.toLowerCase(b);
     }
 }
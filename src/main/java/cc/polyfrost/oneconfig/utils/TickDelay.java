@@ -26,39 +26,26 @@
 
 package cc.polyfrost.oneconfig.utils;
 
-import cc.polyfrost.oneconfig.events.EventManager;
-import cc.polyfrost.oneconfig.events.event.Stage;
-import cc.polyfrost.oneconfig.events.event.TickEvent;
-import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
-
 /**
  * Schedules a Runnable to be called after a certain amount of ticks.
  *
  * If the amount of ticks is below 1, the Runnable will be called immediately.
+ *
+ * @see TickScheduler#afterTicks(int, Runnable)
  */
 public class TickDelay {
-    private final Runnable function;
-    private int delay;
+    private final TickScheduler.Task task;
 
     public TickDelay(Runnable function, int ticks) {
-        if (ticks < 1) {
-            function.run();
-        } else {
-            EventManager.INSTANCE.register(this);
-            delay = ticks;
-        }
-        this.function = function;
+        task = TickScheduler.afterTicks(ticks, function);
     }
 
-    @Subscribe
-    protected void onTick(TickEvent event) {
-        if (event.stage == Stage.START) {
-            // Delay expired
-            if (delay < 1) {
-                function.run();
-                EventManager.INSTANCE.unregister(this);
-            }
-            delay--;
-        }
+    /**
+     * Cancels the delay if the Runnable has not been called yet.
+     *
+     * @return If the delay was cancelled
+     */
+    public boolean cancel() {
+        return task.cancel();
     }
 }
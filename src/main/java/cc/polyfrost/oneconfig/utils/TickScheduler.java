@@ -0,0 +1,220 @@
+/*
+ * This file is part of OneConfig.
+ * OneConfig - Next Generation Config Library for Minecraft: Java Edition
+ * Copyright (C) 2021~2023 Polyfrost.
+ *   <https://polyfrost.cc> <https://github.com/Polyfrost/>
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ *   OneConfig is licensed under the terms of version 3 of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, AND
+ * under the Additional Terms Applicable to OneConfig, as published by Polyfrost,
+ * either version 1.0 of the Additional Terms, or (at your option) any later
+ * version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ *   You should have received a copy of the GNU Lesser General Public
+ * License.  If not, see <https://www.gnu.org/licenses/>. You should
+ * have also received a copy of the Additional Terms Applicable
+ * to OneConfig, as published by Polyfrost. If not, see
+ * <https://polyfrost.cc/legal/oneconfig/additional-terms>
+ */
+
+package cc.polyfrost.oneconfig.utils;
+
+import cc.polyfrost.oneconfig.events.EventManager;
+import cc.polyfrost.oneconfig.events.event.RenderEvent;
+import cc.polyfrost.oneconfig.events.event.Stage;
+import cc.polyfrost.oneconfig.events.event.TickEvent;
+import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+/**
+ * Runs tasks after a certain amount of ticks or rendered frames.
+ * <p>
+ * Pending tasks are kept in a timer wheel driven by a single tick listener and a single frame listener, so scheduling,
+ * cancelling and advancing a tick take constant time no matter how many tasks are pending.
+ * Tasks run on the game thread, at the start of the tick or frame they are due in.
+ * </p>
+ *
+ * @see TickDelay
+ * @see RenderTickDelay
+ */
+public final class TickScheduler {
+    private static final Logger LOGGER = LogManager.getLogger("OneConfig Scheduler");
+    private static final Wheel ticks = new Wheel();
+    private static final Wheel frames = new Wheel();
+
+    static {
+        EventManager.INSTANCE.register(new TickScheduler());
+    }
+
+    private TickScheduler() {
+    }
+
+    /**
+     * Schedules a Runnable to be called after a certain amount of ticks.
+     * If the amount of ticks is below 1, the Runnable is called immediately.
+     *
+     * @param ticks    The amount of ticks to wait
+     * @param runnable The Runnable to call
+     * @return A handle which can cancel the task
+     */
+    public static Task afterTicks(int ticks, Runnable runnable) {
+        return schedule(TickScheduler.ticks, ticks, runnable);
+    }
+
+    /**
+     * Schedules a Runnable to be called after a certain amount of RENDER ticks (frames).
+     * If the amount of frames is below 1, the Runnable is called immediately.
+     *
+     * @param frames   The amount of frames to wait
+     * @param runnable The Runnable to call
+     * @return A handle which can cancel the task
+     */
+    public static Task afterFrames(int frames, Runnable runnable) {
+        return schedule(TickScheduler.frames, frames, runnable);
+    }
+
+    private static Task schedule(Wheel wheel, int delay, Runnable runnable) {
+        Task task = new Task(wheel, runnable);
+        if (delay < 1) {
+            task.done = true;
+            runnable.run();
+        } else {
+            // a delay of n runs at the start of the (n + 1)th tick, as TickDelay always has
+            wheel.add(task, delay + 1L);
+        }
+        return task;
+    }
+
+    @Subscribe
+    private void onTick(TickEvent event) {
+        if (event.stage == Stage.START) ticks.advance();
+    }
+
+    @Subscribe
+    private void onRender(RenderEvent event) {
+        if (event.stage == Stage.START) frames.advance();
+    }
+
+    /**
+     * A scheduled task.
+     */
+    public static final class Task {
+        private final Wheel wheel;
+        private final Runnable runnable;
+        private Task previous;
+        private Task next;
+        private int slot = -1;
+        private long rounds;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+
+        private Task(Wheel wheel, Runnable runnable) {
+            this.wheel = wheel;
+            this.runnable = runnable;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return If the task was cancelled, false if it already ran or was cancelled before
+         */
+        public boolean cancel() {
+            return wheel.remove(this);
+        }
+
+        /**
+         * @return If the task has run
+         */
+        public boolean isDone() {
+            return done;
+        }
+
+        /**
+         * @return If the task was cancelled before it ran
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * A hashed timer wheel: every slot holds a linked list of the tasks due when the cursor reaches it, with the amount
+     * of full rotations they still have to wait for.
+     */
+    private static final class Wheel {
+        private static final int SIZE = 256;
+        private static final int MASK = SIZE - 1;
+        private final Task[] slots = new Task[SIZE];
+        private int cursor = 0;
+        private Task[] due = new Task[16];
+
+        synchronized void add(Task task, long delay) {
+            task.slot = (int) ((cursor + delay) & MASK);
+            task.rounds = (delay - 1) / SIZE;
+            link(task);
+        }
+
+        synchronized boolean remove(Task task) {
+            if (task.slot == -1) return false;
+            unlink(task);
+            task.cancelled = true;
+            return true;
+        }
+
+        void advance() {
+            int dueCount = 0;
+            synchronized (this) {
+                cursor = (cursor + 1) & MASK;
+                Task task = slots[cursor];
+                while (task != null) {
+                    Task next = task.next;
+                    if (task.rounds > 0) {
+                        task.rounds--;
+                    } else {
+                        unlink(task);
+                        if (dueCount == due.length) due = Arrays.copyOf(due, dueCount * 2);
+                        due[dueCount++] = task;
+                    }
+                    task = next;
+                }
+            }
+            for (int i = 0; i < dueCount; i++) {
+                Task task = due[i];
+                due[i] = null;
+                task.done = true;
+                try {
+                    task.runnable.run();
+                } catch (Exception e) {
+                    LOGGER.error("Exception in scheduled task " + task.runnable, e);
+                }
+            }
+        }
+
+        private void link(Task task) {
+            Task head = slots[task.slot];
+            task.previous = null;
+            task.next = head;
+            if (head != null) head.previous = task;
+            slots[task.slot] = task;
+        }
+
+        private void unlink(Task task) {
+            if (task.previous != null) task.previous.next = task.next;
+            else slots[task.slot] = task.next;
+            if (task.next != null) task.next.previous = task.previous;
+            task.previous = null;
+            task.next = null;
+            task.slot = -1;
+        }
+    }
+}
@@ -35,9 +35,11 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -59,6 +61,8 @@ public class CommandManager {
     private final String[] EMPTY_ARRAY = new String[]{""};
     // so that no one can name a method this
     static final String MAIN_METHOD_NAME = "MAIN" + DELIMITER + DELIMITER + "MAIN";
+    private static final String MAIN_METHOD_PATH = MAIN_METHOD_NAME.toLowerCase(Locale.ROOT);
+    private static final Object[] NO_ARGS = new Object[0];
 
     private CommandManager() {
         addParser(new ArgumentParser.StringParser());
@@ -159,7 +163,7 @@ public class CommandManager {
         List<String> out = new ArrayList<>();
         for (String path : in.getParentPaths()) {
             for (String alias : in.getAliases()) {
-                out.add((path + (path.isEmpty() ? "" : DELIMITER) + alias).toLowerCase());
+                out.add((path + (path.isEmpty() ? "" : DELIMITER) + alias).toLowerCase(Locale.ROOT));
             }
         }
         return out.toArray(new String[0]);
@@ -172,9 +176,9 @@ public class CommandManager {
         for (String path : paths) {
             String prefix = path + (path.isEmpty() ? "" : DELIMITER);
             for (String alias : annotation.aliases()) {
-                out.add((prefix + alias).toLowerCase());
+                out.add((prefix + alias).toLowerCase(Locale.ROOT));
             }
-            out.add((prefix + annotation.value()).toLowerCase());
+            out.add((prefix + annotation.value()).toLowerCase(Locale.ROOT));
         }
         return out.toArray(new String[0]);
     }
@@ -184,6 +188,11 @@ public class CommandManager {
      */
     protected class OCCommand {
         final Map<InternalCommand, String[]> commandsMap = new HashMap<>();
+        /**
+         * The paths of all subcommands as a tree with one level per word, so that finding a subcommand or completing a
+         * word only takes as many lookups as there are words.
+         */
+        private final CommandNode tree = new CommandNode();
         final String[] helpCommand;
         private final Command meta;
         InternalCommand mainMethod;
@@ -238,7 +247,102 @@ public class CommandManager {
             if (commandsMap.keySet().stream().anyMatch(internalCommand::equals)) {
                 throw new IllegalArgumentException("Command " + method.getName() + " is already registered!");
             }
-            commandsMap.put(internalCommand, computePaths(internalCommand));
+            String[] paths = computePaths(internalCommand);
+            commandsMap.put(internalCommand, paths);
+            for (String path : paths) {
+                addToTree(path, internalCommand);
+            }
+        }
+
+        private void addToTree(String path, InternalCommand command) {
+            boolean main = path.endsWith(MAIN_METHOD_PATH);
+            if (main) path = path.substring(0, path.length() - MAIN_METHOD_PATH.length());
+            CommandNode node = tree;
+            for (String word : path.split(DELIMITER)) {
+                if (word.isEmpty()) continue;
+                node = node.children.computeIfAbsent(word, w -> new CommandNode());
+            }
+            if (main) {
+                if (node.main == null) node.main = command;
+            } else if (node.command == null) {
+                node.command = command;
+            }
+        }
+
+        /**
+         * Find the subcommand the given arguments run, trying the longest path first.
+         *
+         * @return the subcommand and the arguments that are left for it, or null if there is none
+         */
+        @Nullable
+        Pair<String[], InternalCommand> getCommand(String[] args) {
+            for (int length = args.length; length > 0; length--) {
+                InternalCommand command = get(args, length);
+                if (command != null) {
+                    return new Pair<>(Arrays.copyOfRange(args, command.depth, args.length), command);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the subcommand whose path is exactly the first words of the arguments, or the main method of the group
+         * with that path. If the words are not the start of any path either, a subcommand which takes the remaining
+         * words as parameters.
+         */
+        @Nullable
+        private InternalCommand get(String[] args, int length) {
+            CommandNode node = tree;
+            for (int i = 0; i < length && node != null; i++) {
+                node = node.children.get(args[i].toLowerCase(Locale.ROOT));
+            }
+            if (node != null) {
+                if (node.command != null) return node.command;
+                if (node.main != null) return node.main;
+            }
+            if (getApplicableOptsFor(args, length).isEmpty()) {
+                return getFallback(args, length);
+            }
+            return null;
+        }
+
+        @Nullable
+        private InternalCommand getFallback(String[] args, int length) {
+            CommandNode[] nodes = new CommandNode[length + 1];
+            nodes[0] = tree;
+            int depth = 0;
+            while (depth < length) {
+                CommandNode next = nodes[depth].children.get(args[depth].toLowerCase(Locale.ROOT));
+                if (next == null) break;
+                nodes[++depth] = next;
+            }
+            for (int i = depth; i >= 0; i--) {
+                if (i != 0 && acceptsArgs(nodes[i].command, length)) return nodes[i].command;
+                if (acceptsArgs(nodes[i].main, length)) return nodes[i].main;
+            }
+            return null;
+        }
+
+        private boolean acceptsArgs(@Nullable InternalCommand command, int count) {
+            return command != null && command.parameters.length != 0 && (command.parameters.length == count || command.greedy);
+        }
+
+        /**
+         * @return the words that complete the last argument to the path of a subcommand
+         */
+        Collection<String> getApplicableOptsFor(String[] args) {
+            return getApplicableOptsFor(args, args.length);
+        }
+
+        private Collection<String> getApplicableOptsFor(String[] args, int length) {
+            if (length == 0) return Collections.emptyList();
+            CommandNode node = tree;
+            for (int i = 0; i < length - 1; i++) {
+                node = node.children.get(args[i].toLowerCase(Locale.ROOT));
+                if (node == null) return Collections.emptyList();
+            }
+            String current = args[length - 1].toLowerCase(Locale.ROOT);
+            return new ArrayList<>(node.children.subMap(current, current + Character.MAX_VALUE).keySet());
         }
 
         /**
@@ -339,6 +443,14 @@ public class CommandManager {
         private final String[] aliases, paths;
         private final boolean hasHelp;
         private final Object parent;
+        private final Parameter[] parameters;
+        private final ArgumentParser<?>[] argumentParsers;
+        private final boolean greedy;
+        private final MethodHandle invoker;
+        /**
+         * The amount of words in the primary path, which are the arguments that come before the parameters.
+         */
+        final int depth;
 
         private InternalCommand(Object parent, @NotNull Method methodIn, String[] paths) {
             this.parent = parent;
@@ -361,9 +473,12 @@ public class CommandManager {
             this.paths = paths;
 
             // check parameters
+            this.parameters = method.getParameters();
+            this.argumentParsers = new ArgumentParser<?>[parameters.length];
             int i = 0;
-            for (Parameter parameter : method.getParameters()) {
-                if (!parsers.containsKey(parameter.getType())) {
+            for (Parameter parameter : parameters) {
+                argumentParsers[i] = parsers.get(parameter.getType());
+                if (argumentParsers[i] == null) {
                     throw new IllegalArgumentException("Method " + method.getName() + " has a parameter of class " +
                             parameter.getType().getSimpleName() + " which does not have a valid parser; see CommandManager.addParser");
                 }
@@ -373,6 +488,18 @@ public class CommandManager {
                 }
                 i++;
             }
+            this.greedy = parameters.length != 0 && parameters[parameters.length - 1].isAnnotationPresent(Greedy.class);
+
+            int depth = paths[0].isEmpty() ? 0 : paths[0].split(DELIMITER).length;
+            this.depth = meta != null ? depth + 1 : depth;
+
+            try {
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                if (!Modifier.isStatic(method.getModifiers())) handle = handle.bindTo(parent);
+                this.invoker = handle.asSpreader(Object[].class, parameters.length).asType(MethodType.methodType(void.class, Object[].class));
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Method " + method.getName() + " could not be accessed", e);
+            }
         }
 
         @Nullable
@@ -380,30 +507,29 @@ public class CommandManager {
             try {
                 // main method
                 if (argsIn == null) {
-                    method.invoke(parent);
+                    invoker.invokeExact(NO_ARGS);
                     return null;
                 }
-                if ((argsIn.length != method.getParameterCount()) && (method.getParameterCount() == 0 || !method.getParameters()[method.getParameterCount() - 1].isAnnotationPresent(Greedy.class))) {
-                    return ChatColor.RED + "Incorrect number of parameters, expected " + method.getParameterCount() + " but got " + argsIn.length;
+                if (argsIn.length != parameters.length && (parameters.length == 0 || !greedy)) {
+                    return ChatColor.RED + "Incorrect number of parameters, expected " + parameters.length + " but got " + argsIn.length;
                 }
-                return invokeWith(method, argsIn);
-            } catch (Exception e) {
+                return invokeWith(argsIn);
+            } catch (Throwable e) {
+                // a runaway recursion has unwound by now, but other VM errors mean the game itself is in trouble
+                if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError)) throw (VirtualMachineError) e;
                 e.printStackTrace();
                 return ChatColor.RED + METHOD_RUN_ERROR.replace("@ROOT_COMMAND@", getName());
             }
         }
 
-        private String invokeWith(Method method, String[] argsIn) throws InvocationTargetException, IllegalAccessException {
-            Object[] args = new Object[method.getParameterCount()];
-            Parameter[] parameters = method.getParameters();
-            int i = 0;
-            for (Parameter parameter : parameters) {
+        private String invokeWith(String[] argsIn) throws Throwable {
+            Object[] args = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
                 try {
-                    if (i == args.length - 1 && parameter.isAnnotationPresent(Greedy.class)) {
-                        // I love streams
-                        args[i] = Arrays.stream(argsIn).skip(i).collect(Collectors.joining(" "));
+                    if (i == args.length - 1 && greedy) {
+                        args[i] = String.join(" ", Arrays.asList(argsIn).subList(i, argsIn.length));
                     } else {
-                        args[i] = parsers.get(parameter.getType()).parse(argsIn[i]);
+                        args[i] = argumentParsers[i].parse(argsIn[i]);
                     }
                 } catch (NumberFormatException ne) {
                     return ChatColor.RED + "Error while parsing parameter '" + argsIn[i] + "': " + "Parameter should be a number!";
@@ -411,9 +537,8 @@ public class CommandManager {
                     e.printStackTrace();
                     return ChatColor.RED + "Error while parsing parameter '" + argsIn[i] + "': " + e.getMessage();
                 }
-                i++;
             }
-            method.invoke(parent, args);
+            invoker.invokeExact(args);
             return null;
         }
 
@@ -447,6 +572,14 @@ public class CommandManager {
             return method;
         }
 
+        Parameter getParameter(int index) {
+            return parameters[index];
+        }
+
+        ArgumentParser<?> getParser(int index) {
+            return argumentParsers[index];
+        }
+
         @Override
         public String toString() {
             return "InternalCommand{" +
@@ -464,6 +597,17 @@ public class CommandManager {
     }
 
 
+    /**
+     * A word of a subcommand path, linking to the subcommand and the main method of the group it completes, if any.
+     */
+    static final class CommandNode {
+        private final TreeMap<String, CommandNode> children = new TreeMap<>();
+        @Nullable
+        private InternalCommand command;
+        @Nullable
+        private InternalCommand main;
+    }
+
     /**
      * A final Pair class to hold a command and its arguments.
      */
@@ -41,6 +41,7 @@ import cc.polyfrost.oneconfig.utils.TickDelay;
 public final class GuiUtils {
     private static long time = -1L;
     private static long deltaTime = 17L;
+    private static long frameCount = 0L;
     private static boolean wasMouseDown = false;
 
     static {
@@ -87,6 +88,13 @@ public final class GuiUtils {
         return deltaTime;
     }
 
+    /**
+     * @return The number of frames rendered so far, useful to compute something at most once per frame
+     */
+    public static long getFrameCount() {
+        return frameCount;
+    }
+
     /**
      * @return If the mouse was down last frame
      */
@@ -97,6 +105,7 @@ public final class GuiUtils {
     @Subscribe
     private void onRenderEvent(RenderEvent event) {
         if (event.stage == Stage.START) {
+            frameCount++;
             if (time == -1) time = UMinecraft.getTime();
             else {
                 long currentTime = UMinecraft.getTime();
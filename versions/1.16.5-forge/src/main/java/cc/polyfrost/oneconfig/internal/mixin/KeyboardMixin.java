@@ -41,7 +41,9 @@ public class KeyboardMixin {
 
     @ModifyVariable(method = "onKeyEvent", at = @At(value = "STORE"), ordinal = 0)
     private boolean onKeyEvent(boolean original, long windowPointer, int key, int scanCode, int action, int modifiers) {
-        EventManager.INSTANCE.register(new RawKeyEvent(key, action));
+        if (EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) {
+            EventManager.INSTANCE.post(new RawKeyEvent(key, action));
+        }
         return original;
     }
 
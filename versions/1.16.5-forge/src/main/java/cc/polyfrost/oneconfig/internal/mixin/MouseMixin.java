@@ -40,12 +40,13 @@ public class MouseMixin {
     //#if FORGE
     @Inject(method = "mouseButtonCallback", at = @At(value = "INVOKE", target = "Lnet/minecraftforge/client/ForgeHooksClient;onRawMouseClicked(III)Z", remap = false), remap = true)
     private void onMouse(long handle, int button, int action, int mods, CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
         EventManager.INSTANCE.post(new RawMouseEvent(button, action));
     }
     //#else
     //$$ @org.spongepowered.asm.mixin.injection.ModifyVariable(method = "onMouseButton", at = @At("STORE"), ordinal = 0)
     //$$ private int onMouse(int button, long handle, int b, int action, int mods) {
-    //$$      EventManager.INSTANCE.post(new RawMouseEvent(button, action));
+    //$$      if (EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) EventManager.INSTANCE.post(new RawMouseEvent(button, action));
     //$$      return button;
     //$$  }
     //#endif
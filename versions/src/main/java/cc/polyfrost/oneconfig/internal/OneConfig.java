@@ -38,6 +38,7 @@ import cc.polyfrost.oneconfig.internal.config.core.ConfigCore;
 import cc.polyfrost.oneconfig.internal.config.core.KeyBindHandler;
 import cc.polyfrost.oneconfig.internal.gui.BlurHandler;
 import cc.polyfrost.oneconfig.internal.hud.HudCore;
+import cc.polyfrost.oneconfig.internal.renderer.FontLoader;
 import cc.polyfrost.oneconfig.libs.eventbus.Subscribe;
 import cc.polyfrost.oneconfig.libs.universal.ChatColor;
 import cc.polyfrost.oneconfig.libs.universal.UChat;
@@ -99,6 +100,7 @@ public class OneConfig {
     @SuppressWarnings("ResultOfMethodCallIgnored")
     public void init() {
         if (initialized) return;
+        FontLoader.preload();
         if (OneConfigConfig.getInstance() == null) {
             OneConfigConfig.getInstance();
         }
@@ -174,6 +176,7 @@ public class OneConfig {
         HypixelUtils.INSTANCE.initialize();
         EventManager.INSTANCE.register(KeyBindHandler.INSTANCE);
         ConfigCore.sortMods();
+        ConfigCore.finishInitialization();
 
         initialized = true;
     }
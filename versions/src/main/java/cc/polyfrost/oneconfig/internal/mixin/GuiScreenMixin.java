@@ -47,6 +47,7 @@ public class GuiScreenMixin {
             //#endif
     ))
     private void onMouseInput(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
         EventManager.INSTANCE.post(new RawMouseEvent(Mouse.getEventButton(), Mouse.getEventButtonState() ? 1 : 0));
     }
 
@@ -58,6 +59,7 @@ public class GuiScreenMixin {
             //#endif
     ))
     private void onKeyInput(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) return;
         int state = 0;
         if (Keyboard.getEventKeyState()) {
             if (Keyboard.isRepeatEvent()) {
@@ -100,6 +100,19 @@ public class MinecraftMixin {
         EventManager.INSTANCE.post(new FramebufferRenderEvent(Stage.END));
     }
 
+    //#if MC<=11202
+    @Inject(method = "refreshResources", at = @At("TAIL"))
+    private void onResourcesReload(CallbackInfo ci) {
+        EventManager.INSTANCE.post(new ResourcesReloadEvent());
+    }
+    //#else
+    //$$ @Inject(method = "reloadResources", at = @At("RETURN"))
+    //$$ private void onResourcesReload(org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable<java.util.concurrent.CompletableFuture<Void>> cir) {
+    //$$     // the reload future completes on a worker thread, listeners expect to run on the client thread
+    //$$     cir.getReturnValue().thenRunAsync(() -> EventManager.INSTANCE.post(new ResourcesReloadEvent()), (Minecraft) (Object) this);
+    //$$ }
+    //#endif
+
     @Inject(method = "runTick", at = @At(value = "INVOKE", target = "Lnet/minecraft/profiler/Profiler;startSection(Ljava/lang/String;)V", ordinal = 0))
     private void onClientTickStart(CallbackInfo ci) {
         EventManager.INSTANCE.post(new TickEvent(Stage.START));
@@ -152,6 +165,7 @@ public class MinecraftMixin {
     //#if MC<=11202
     @Inject(method = "runGameLoop", at = @At(value = "FIELD", target = "Lnet/minecraft/util/Timer;renderPartialTicks:F", opcode = Opcodes.PUTFIELD, shift = At.Shift.AFTER))
     private void onNonDeltaTickTimerUpdate(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(TimerUpdateEvent.class)) return;
         EventManager.INSTANCE.post(new TimerUpdateEvent(this.timer, false));
     }
     //#endif
@@ -167,6 +181,7 @@ public class MinecraftMixin {
             //#endif
     ))
     private void onDeltaTickTimerUpdate(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(TimerUpdateEvent.class)) return;
         EventManager.INSTANCE.post(new TimerUpdateEvent(this.timer, true));
     }
 
@@ -175,6 +190,7 @@ public class MinecraftMixin {
     //#if MC<=10809
     @Inject(method = "runTick", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/settings/KeyBinding;setKeyBindState(IZ)V", ordinal = 1))
     private void onKeyEvent(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) return;
         int state = 0;
         if (Keyboard.getEventKeyState()) {
             if (Keyboard.isRepeatEvent()) {
@@ -193,6 +209,7 @@ public class MinecraftMixin {
 
     @Inject(method = "runTick", at = @At(value = "INVOKE", target = "Lnet/minecraftforge/client/ForgeHooksClient;postMouseEvent()Z", remap = false), remap = true)
     private void onMouseEvent(CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
         EventManager.INSTANCE.post(new RawMouseEvent(Mouse.getEventButton(), Mouse.getEventButtonState() ? 1 : 0));
     }
 
@@ -203,6 +220,7 @@ public class MinecraftMixin {
     //#else
     //$$ @Inject(method = "runTickKeyboard", at = @At(value = "FIELD", target = "Lnet/minecraft/client/Minecraft;debugCrashKeyPressTime:J", opcode = Opcodes.PUTFIELD))
     //$$ private void onKeyEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) return;
     //$$     int state = 0;
     //$$     if (Keyboard.getEventKeyState()) {
     //$$         if (Keyboard.isRepeatEvent()) {
@@ -221,6 +239,7 @@ public class MinecraftMixin {
     //$$
     //$$ @Inject(method = "runTickMouse", at = @At(value = "INVOKE", target = "Lnet/minecraftforge/client/ForgeHooksClient;postMouseEvent()Z", remap = false), remap = true)
     //$$ private void onMouseEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
     //$$     EventManager.INSTANCE.post(new RawMouseEvent(Mouse.getEventButton(), Mouse.getEventButtonState() ? 1 : 0));
     //$$ }
     //$$
@@ -233,6 +252,7 @@ public class MinecraftMixin {
     //#if MC<=10809
     //$$ @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/options/KeyBinding;setKeyPressed(IZ)V", ordinal = 1))
     //$$ private void onKeyEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) return;
     //$$     int state = 0;
     //$$     if (Keyboard.getEventKeyState()) {
     //$$         if (Keyboard.isRepeatEvent()) {
@@ -251,6 +271,7 @@ public class MinecraftMixin {
     //$$
     //$$ @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lorg/lwjgl/input/Mouse;getEventButton()I"))
     //$$ private void onMouseEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
     //$$     EventManager.INSTANCE.post(new RawMouseEvent(Mouse.getEventButton(), Mouse.getEventButtonState() ? 1 : 0));
     //$$ }
     //$$
@@ -261,6 +282,7 @@ public class MinecraftMixin {
     //#else
     //$$ @Inject(method = "method_12145", at = @At(value = "FIELD", target = "Lnet/minecraft/client/MinecraftClient;f3CTime:J", opcode = Opcodes.PUTFIELD))
     //$$ private void onKeyEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawKeyEvent.class)) return;
     //$$     int state = 0;
     //$$     if (Keyboard.getEventKeyState()) {
     //$$         if (Keyboard.isRepeatEvent()) {
@@ -279,6 +301,7 @@ public class MinecraftMixin {
     //$$
     //$$ @Inject(method = "method_12141", at = @At(value = "INVOKE", target = "Lnet/minecraft/client/options/KeyBinding;setKeyPressed(IZ)V"))
     //$$ private void onMouseEvent(CallbackInfo ci) {
+    //$$     if (!EventManager.INSTANCE.hasListeners(RawMouseEvent.class)) return;
     //$$     EventManager.INSTANCE.post(new RawMouseEvent(Mouse.getEventButton(), Mouse.getEventButtonState() ? 1 : 0));
     //$$ }
     //$$
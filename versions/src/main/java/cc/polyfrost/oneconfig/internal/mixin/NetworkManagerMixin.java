@@ -54,6 +54,7 @@ public class NetworkManagerMixin {
 
     @Inject(method = "sendPacket(Lnet/minecraft/network/Packet;)V", at = @At("HEAD"), cancellable = true)
     private void onSendPacket(Packet<?> packetIn, CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(SendPacketEvent.class)) return;
         SendPacketEvent event = new SendPacketEvent(packetIn);
         EventManager.INSTANCE.post(event);
         if (event.isCancelled) {
@@ -63,6 +64,7 @@ public class NetworkManagerMixin {
 
     @Inject(method = "channelRead0(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/Packet;)V", at = @At("HEAD"), cancellable = true)
     private void onReceivePacket(ChannelHandlerContext p_channelRead0_1_, Packet<?> p_channelRead0_2_, CallbackInfo ci) {
+        if (!EventManager.INSTANCE.hasListeners(ReceivePacketEvent.class)) return;
         ReceivePacketEvent event = new ReceivePacketEvent(p_channelRead0_2_);
         EventManager.INSTANCE.post(event);
         if (event.isCancelled) {
@@ -116,6 +116,7 @@ public class OneConfigMixinPlugin implements IMixinConfigPlugin {
         }
 
         if (version <= 11202) {
+            mixins.add("FontRendererAccessor");
             mixins.add("GuiScreenMixin");
         }
 
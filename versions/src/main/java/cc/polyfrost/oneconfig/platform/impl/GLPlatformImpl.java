@@ -33,14 +33,26 @@ import cc.polyfrost.oneconfig.platform.GLPlatform;
 import net.minecraft.client.renderer.Tessellator;
 import net.minecraft.client.renderer.WorldRenderer;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
-
-//#if FORGE==1
 import net.minecraft.client.shader.Framebuffer;
+import org.lwjgl.opengl.GL11;
+
+//#if MC>=11600
+//$$ import net.minecraft.client.Minecraft;
 //#else
+import cc.polyfrost.oneconfig.internal.mixin.FontRendererAccessor;
+import net.minecraft.client.gui.FontRenderer;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.util.ResourceLocation;
+//#endif
+
+//#if FORGE==0
 //$$ import cc.polyfrost.oneconfig.internal.hook.FramebufferHook;
 //#endif
 
 public class GLPlatformImpl implements GLPlatform {
+    //#if MC<=11202
+    private static final ResourceLocation ASCII_FONT = new ResourceLocation("textures/font/ascii.png");
+    //#endif
 
     @Override
     public void drawRect(float x, float y, float x2, float y2, int color) {
@@ -105,4 +117,163 @@ public class GLPlatformImpl implements GLPlatform {
     public int getStringWidth(String text) {
         return UMinecraft.getFontRenderer().getStringWidth(text);
     }
+
+    @Override
+    public float drawTextBorder(String text, float x, float y, int color) {
+        //#if MC<=11202
+        float end = drawBatchedTextBorder(text, x, y, color);
+        if (!Float.isNaN(end)) return end;
+        //#endif
+        return GLPlatform.super.drawTextBorder(text, x, y, color);
+    }
+
+    //#if MC<=11202
+    /**
+     * Draws every offset pass of the border in one tessellator batch, emitting the same quads the font renderer draws
+     * for ASCII glyphs. Returns NaN if the text needs anything the font renderer does differently (unicode font,
+     * formatting codes other than resets, characters outside the ASCII page), in which case nothing is drawn.
+     * It also returns NaN if the font renderer was replaced or uses another font texture (like OptiFine's HD fonts),
+     * since those may lay out glyphs differently.
+     */
+    private static float drawBatchedTextBorder(String text, float x, float y, int color) {
+        FontRenderer fontRenderer = UMinecraft.getFontRenderer();
+        if (fontRenderer.getClass() != FontRenderer.class || fontRenderer.getUnicodeFlag()) return Float.NaN;
+        ResourceLocation fontTexture = ((FontRendererAccessor) fontRenderer).getLocationFontTexture();
+        if (!ASCII_FONT.equals(fontTexture)) return Float.NaN;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\u00A7') {
+                if (++i < text.length() && Character.toLowerCase(text.charAt(i)) != 'r') return Float.NaN;
+            } else if (c < ' ' || c > '~') return Float.NaN;
+        }
+
+        if ((color & 0xFC000000) == 0) color |= 0xFF000000;
+        UMinecraft.getMinecraft().getTextureManager().bindTexture(fontTexture);
+        UGraphics.enableAlpha();
+        UGraphics.color4f((color >> 16 & 0xFF) / 255f, (color >> 8 & 0xFF) / 255f, (color & 0xFF) / 255f, (color >> 24 & 0xFF) / 255f);
+        Tessellator tessellator = Tessellator.getInstance();
+        WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+        worldRenderer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
+        float end = 0f;
+        for (int xOff = -2; xOff <= 2; xOff++) {
+            for (int yOff = -2; yOff <= 2; yOff++) {
+                if (xOff * xOff == yOff * yOff) continue;
+                float posX = (xOff / 2f) + x;
+                float posY = (yOff / 2f) + y;
+                for (int i = 0; i < text.length(); i++) {
+                    char c = text.charAt(i);
+                    if (c == '\u00A7') {
+                        i++;
+                        continue;
+                    }
+                    int charWidth = fontRenderer.getCharWidth(c);
+                    if (c != ' ') {
+                        float u = c % 16 * 8;
+                        float v = c / 16 * 8;
+                        float w = charWidth - 1.01f;
+                        worldRenderer.pos(posX, posY, 0.0).tex(u / 128f, v / 128f).endVertex();
+                        worldRenderer.pos(posX, posY + 7.99f, 0.0).tex(u / 128f, (v + 7.99f) / 128f).endVertex();
+                        worldRenderer.pos(posX + w, posY + 7.99f, 0.0).tex((u + w) / 128f, (v + 7.99f) / 128f).endVertex();
+                        worldRenderer.pos(posX + w, posY, 0.0).tex((u + w) / 128f, v / 128f).endVertex();
+                    }
+                    posX += charWidth;
+                }
+                end += posX;
+            }
+        }
+        tessellator.draw();
+        return end;
+    }
+    //#endif
+
+    @Override
+    public RenderTarget createRenderTarget(int width, int height) {
+        //#if MC<11600
+        if (!OpenGlHelper.isFramebufferEnabled()) return null;
+        //#endif
+        return new RenderTargetImpl(width, height);
+    }
+
+    private static class RenderTargetImpl implements RenderTarget {
+        private final Framebuffer framebuffer;
+
+        private RenderTargetImpl(int width, int height) {
+            //#if MC>=11600
+            //$$ framebuffer = new Framebuffer(width, height, false, Minecraft.IS_RUNNING_ON_MAC);
+            //#else
+            framebuffer = new Framebuffer(width, height, false);
+            //#endif
+            framebuffer.setFramebufferColor(0f, 0f, 0f, 0f);
+        }
+
+        @Override
+        public int getWidth() {
+            return framebuffer.framebufferWidth;
+        }
+
+        @Override
+        public int getHeight() {
+            return framebuffer.framebufferHeight;
+        }
+
+        @Override
+        public void resize(int width, int height) {
+            //#if MC>=11600
+            //$$ framebuffer.resize(width, height, Minecraft.IS_RUNNING_ON_MAC);
+            //#else
+            framebuffer.createBindFramebuffer(width, height);
+            //#endif
+        }
+
+        @Override
+        public void beginWrite(float x, float y, float width, float height) {
+            //#if MC>=11600
+            //$$ framebuffer.framebufferClear(Minecraft.IS_RUNNING_ON_MAC);
+            //#else
+            framebuffer.framebufferClear();
+            //#endif
+            framebuffer.bindFramebuffer(true);
+            GL11.glMatrixMode(GL11.GL_PROJECTION);
+            GL11.glPushMatrix();
+            GL11.glLoadIdentity();
+            GL11.glOrtho(x, x + width, y + height, y, 1000.0, 3000.0);
+            GL11.glMatrixMode(GL11.GL_MODELVIEW);
+            // accumulate alpha properly, so the contents end up premultiplied
+            UGraphics.tryBlendFuncSeparate(770, 771, 1, 771);
+        }
+
+        @Override
+        public void endWrite() {
+            UGraphics.tryBlendFuncSeparate(770, 771, 1, 0);
+            GL11.glMatrixMode(GL11.GL_PROJECTION);
+            GL11.glPopMatrix();
+            GL11.glMatrixMode(GL11.GL_MODELVIEW);
+            UMinecraft.getMinecraft().getFramebuffer().bindFramebuffer(true);
+        }
+
+        @Override
+        public void draw(float x, float y, float width, float height) {
+            float u = (float) framebuffer.framebufferWidth / framebuffer.framebufferTextureWidth;
+            float v = (float) framebuffer.framebufferHeight / framebuffer.framebufferTextureHeight;
+            Tessellator tessellator = Tessellator.getInstance();
+            WorldRenderer worldRenderer = tessellator.getWorldRenderer();
+            UGraphics.enableBlend();
+            UGraphics.tryBlendFuncSeparate(1, 771, 1, 771);
+            UGraphics.color4f(1f, 1f, 1f, 1f);
+            framebuffer.bindFramebufferTexture();
+            worldRenderer.begin(7, DefaultVertexFormats.POSITION_TEX);
+            worldRenderer.pos(x, y + height, 0.0).tex(0.0, 0.0).endVertex();
+            worldRenderer.pos(x + width, y + height, 0.0).tex(u, 0.0).endVertex();
+            worldRenderer.pos(x + width, y, 0.0).tex(u, v).endVertex();
+            worldRenderer.pos(x, y, 0.0).tex(0.0, v).endVertex();
+            tessellator.draw();
+            framebuffer.unbindFramebufferTexture();
+            UGraphics.tryBlendFuncSeparate(770, 771, 1, 0);
+        }
+
+        @Override
+        public void delete() {
+            framebuffer.deleteFramebuffer();
+        }
+    }
 }
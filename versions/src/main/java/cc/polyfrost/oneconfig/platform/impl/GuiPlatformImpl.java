@@ -59,6 +59,15 @@ public class GuiPlatformImpl implements GuiPlatform {
         return UMinecraft.getSettings().showDebugInfo;
     }
 
+    @Override
+    public boolean isWindowFocused() {
+        //#if MC<=11202
+        return org.lwjgl.opengl.Display.isActive();
+        //#else
+        //$$ return UMinecraft.getMinecraft().isGameFocused();
+        //#endif
+    }
+
     @Override
     public void playClickSound() {
         //#if MC<=11202